@@ -0,0 +1,92 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rules engine hot paths run for every MAKE_MOVE
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+    private ChessGame middlegame;
+    private ChessGame mated;
+    private ChessGame knightShuffle;
+    private List<ChessPosition> sideToMove;
+    private int[] buffer;
+
+    private final ChessMove whiteOut = Positions.move(1, 2, 3, 3);
+    private final ChessMove blackOut = Positions.move(8, 2, 6, 3);
+    private final ChessMove whiteBack = Positions.move(3, 3, 1, 2);
+    private final ChessMove blackBack = Positions.move(6, 3, 8, 2);
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        middlegame = Positions.middlegame();
+        mated = Positions.foolsMate();
+        knightShuffle = new ChessGame();
+        buffer = new int[Move.MAX_MOVES];
+
+        sideToMove = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = middlegame.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == middlegame.getTeamTurn()) {
+                    sideToMove.add(new ChessPosition(row, col));
+                }
+            }
+        }
+    }
+
+    /**
+     * validMoves for every piece of the side to move, as a client highlighting moves would
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition position : sideToMove) {
+            blackhole.consume(middlegame.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return middlegame.generateLegalMoves(buffer);
+    }
+
+    /**
+     * Four makeMove calls that return to the starting position
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        knightShuffle.makeMove(whiteOut);
+        knightShuffle.makeMove(blackOut);
+        knightShuffle.makeMove(whiteBack);
+        knightShuffle.makeMove(blackBack);
+        return knightShuffle;
+    }
+
+    /**
+     * Side to move, answered from the cached game status
+     */
+    @Benchmark
+    public boolean isInCheckmate() {
+        return mated.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    /**
+     * Side not to move, which is computed in full on every call
+     */
+    @Benchmark
+    public boolean isInCheckmateUncached() {
+        return middlegame.isInCheckmate(ChessGame.TeamColor.BLACK);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.engine.Engine;
+import chess.engine.TranspositionTable;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches, as a computer opponent would run per move. Run with
+ * -prof gc to see allocation per search alongside the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({"4", "6"})
+    private int depth;
+
+    private final Engine engine = new Engine();
+    private final Engine tableEngine = new Engine(new TranspositionTable(16));
+    private ChessGame opening;
+    private ChessGame middlegame;
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        opening = new ChessGame();
+        middlegame = Positions.middlegame();
+    }
+
+    @Benchmark
+    public SearchResult searchOpening() {
+        return engine.search(opening, SearchLimits.depth(depth));
+    }
+
+    @Benchmark
+    public SearchResult searchMiddlegame() {
+        return engine.search(middlegame, SearchLimits.depth(depth));
+    }
+
+    @Benchmark
+    public SearchResult searchMiddlegameWithTable() {
+        return tableEngine.search(middlegame, SearchLimits.depth(depth));
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.SQLGameDAO;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read-modify-write cycle GameService runs for every move.
+ * <p>
+ * Only the in-memory DAO runs by default. The "sql" case is opt-in with
+ * {@code -p dao=sql}; it needs the MySQL server from db.properties and works in
+ * its own database, {@value #DATABASE}, set through the forked JVM's db.name.
+ * It only ever deletes the game it created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Ddb.name=" + GameDAOBenchmark.DATABASE)
+public class GameDAOBenchmark {
+    static final String DATABASE = "chess_benchmark";
+
+    @Param({"memory"})
+    public String dao;
+
+    private GameDAO gameDAO;
+    private int gameID;
+
+    @Setup
+    public void setUp() throws DataAccessException, InvalidMoveException {
+        if (dao.equals("sql") && !DATABASE.equals(System.getProperty("db.name"))) {
+            throw new IllegalStateException("The sql case only runs forked, against the " + DATABASE + " database");
+        }
+        gameDAO = dao.equals("sql") ? new SQLGameDAO() : new MemoryGameDAO();
+        gameID = gameDAO.createGame("benchmark");
+        GameData created = gameDAO.getGame(gameID);
+        gameDAO.updateGame(gameID, new GameData(gameID, "white", "black",
+                created.gameName(), Positions.middlegame()));
+    }
+
+    @TearDown
+    public void tearDown() throws DataAccessException {
+        gameDAO.deleteGame(gameID);
+    }
+
+    @Benchmark
+    public GameData updateCycle() throws DataAccessException {
+        GameData game = gameDAO.getGame(gameID);
+        gameDAO.updateGame(gameID, game);
+        return game;
+    }
+
+    @Benchmark
+    public int listGames() throws DataAccessException {
+        return gameDAO.listGames().size();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+/**
+ * Fixed positions shared by the benchmarks
+ */
+final class Positions {
+    private Positions() {
+    }
+
+    /**
+     * An open middlegame after 1.e4 e5 2.Nf3 Nc6 3.Bc4 Bc5 4.d3 Nf6 5.Nc3 d6 6.Bg5 h6 7.Bh4 Be6
+     */
+    static ChessGame middlegame() throws InvalidMoveException {
+        return play(new int[][]{
+                {2, 5, 4, 5}, {7, 5, 5, 5}, {1, 7, 3, 6}, {8, 2, 6, 3},
+                {1, 6, 4, 3}, {8, 6, 5, 3}, {2, 4, 3, 4}, {8, 7, 6, 6},
+                {1, 2, 3, 3}, {7, 4, 6, 4}, {1, 3, 5, 7}, {7, 8, 6, 8},
+                {5, 7, 4, 8}, {8, 3, 6, 5}
+        });
+    }
+
+    /**
+     * White checkmated after 1.f3 e5 2.g4 Qh4#
+     */
+    static ChessGame foolsMate() throws InvalidMoveException {
+        return play(new int[][]{{2, 6, 3, 6}, {7, 5, 5, 5}, {2, 7, 4, 7}, {8, 4, 4, 8}});
+    }
+
+    static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    private static ChessGame play(int[][] moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int[] m : moves) {
+            game.makeMove(move(m[0], m[1], m[2], m[3]));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import websocket.commands.MakeMoveCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round-trips of the game state and the websocket messages carrying it,
+ * and the binary codec used for storage
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String gameJson;
+    private byte[] gameBinary;
+    private LoadGameMessage loadGame;
+    private String loadGameJson;
+    private MakeMoveCommand makeMove;
+    private String makeMoveJson;
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        game = Positions.middlegame();
+        gameJson = gson.toJson(game);
+        gameBinary = GameCodec.encode(game);
+        loadGame = new LoadGameMessage(game);
+        loadGameJson = gson.toJson(loadGame);
+        makeMove = new MakeMoveCommand("token", 1, Positions.move(1, 2, 3, 1));
+        makeMoveJson = gson.toJson(makeMove);
+    }
+
+    @Benchmark
+    public String gameToJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame gameFromJson() {
+        return gson.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public byte[] gameToBinary() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame gameFromBinary() {
+        return GameCodec.decode(gameBinary).toGame();
+    }
+
+    @Benchmark
+    public String loadGameToJson() {
+        return gson.toJson(loadGame);
+    }
+
+    /**
+     * Mirrors the client: read the message type first, then the full message
+     */
+    @Benchmark
+    public LoadGameMessage loadGameFromJson() {
+        gson.fromJson(loadGameJson, ServerMessage.class);
+        return gson.fromJson(loadGameJson, LoadGameMessage.class);
+    }
+
+    @Benchmark
+    public String makeMoveToJson() {
+        return gson.toJson(makeMove);
+    }
+
+    @Benchmark
+    public MakeMoveCommand makeMoveFromJson() {
+        return gson.fromJson(makeMoveJson, MakeMoveCommand.class);
+    }
+}
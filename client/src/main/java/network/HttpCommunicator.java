@@ -69,6 +69,15 @@ public class HttpCommunicator {
         }
     }
 
+    public boolean addBot(int gameID, String playerColor) {
+        try {
+            facade.addBot(authToken, gameID, playerColor);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     public String getAuthToken() {
         return authToken;
     }
@@ -49,6 +49,13 @@ public class ServerFacade {
         makeRequest("PUT", "/game", body, null, authToken);
     }
 
+    public void addBot(String authToken, int gameID, String playerColor) throws IOException {
+        var body = gson.toJson(Map.of(
+                "playerColor", playerColor, "gameID", gameID, "bot", true
+        ));
+        makeRequest("PUT", "/game", body, null, authToken);
+    }
+
     public void clear() throws IOException {
         makeRequest("DELETE", "/db", null, null, null);
     }
@@ -1,6 +1,7 @@
 package network;
 
-import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import com.google.gson.Gson;
 import websocket.commands.ConnectCommand;
 import websocket.messages.*;
@@ -14,7 +15,7 @@ public class WebsocketCommunicator {
 
     private Session session;
     private final Gson gson = new Gson();
-    private Consumer<ChessGame> onGame;
+    private Consumer<LoadGameMessage> onGame;
     private Consumer<String> onMessage;
     private final String authToken;
     private final int gameID;
@@ -38,7 +39,7 @@ public class WebsocketCommunicator {
     public void onOpen(Session session) {
         this.session = session;
         send(gson.toJson(
-                new ConnectCommand(authToken, gameID)));
+                new ConnectCommand(authToken, gameID, ConnectCommand.BoardFormat.FEN)));
     }
 
     @OnMessage
@@ -48,7 +49,7 @@ public class WebsocketCommunicator {
             case LOAD_GAME -> {
                 LoadGameMessage lg = gson.fromJson(message, LoadGameMessage.class);
                 if (onGame != null) {
-                    onGame.accept(lg.getGame());
+                    onGame.accept(lg);
                 }
             }
             case ERROR -> {
@@ -63,7 +64,31 @@ public class WebsocketCommunicator {
                     onMessage.accept(note.getMessage());
                 }
             }
+            case ANALYSIS -> {
+                AnalysisMessage analysis = gson.fromJson(message, AnalysisMessage.class);
+                if (onMessage != null) {
+                    onMessage.accept(describe(analysis));
+                }
+            }
+        }
+    }
+
+    private static String describe(AnalysisMessage analysis) {
+        ChessMove move = analysis.getBestMove();
+        if (move == null) {
+            return "Hint: no legal moves";
         }
+        String score = analysis.isMate()
+                ? (analysis.getScore() > 0 ? "side to move mates" : "side to move is mated")
+                : String.format("%+.2f", analysis.getScore() / 100.0);
+        return "Hint: " + square(move.getStartPosition()) + " " + square(move.getEndPosition())
+                + (move.getPromotionPiece() == null ? "" : " " + move.getPromotionPiece().name().toLowerCase())
+                + " (" + score + ", depth " + analysis.getDepth()
+                + String.format(", material %+.0f", analysis.getMaterialBalance() / 100.0) + ")";
+    }
+
+    private static String square(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
     }
 
     @OnError
@@ -80,7 +105,7 @@ public class WebsocketCommunicator {
         session.getAsyncRemote().sendText(json);
     }
 
-    public void setOnGame(Consumer<ChessGame> handler) {
+    public void setOnGame(Consumer<LoadGameMessage> handler) {
         this.onGame = handler;
     }
 
@@ -4,6 +4,7 @@ import chess.*;
 import com.google.gson.Gson;
 import network.WebsocketCommunicator;
 import websocket.commands.*;
+import websocket.messages.LoadGameMessage;
 
 import java.util.HashSet;
 import java.util.Scanner;
@@ -48,10 +49,17 @@ public class InGameUI {
         }
     }
 
-    private void onGameUpdate(ChessGame game) {
+    private void onGameUpdate(LoadGameMessage message) {
+        ChessGame game = message.getGame();
         this.currentGame = game;
         clearScreen();
         boardDrawer.draw(game, pov);
+        ChessGame.GameStatus status = message.getStatus();
+        if (status != null && status != ChessGame.GameStatus.NORMAL) {
+            System.out.println(game.getTeamTurn() + ": " + status);
+        } else if (message.isGameOver()) {
+            System.out.println("Game over");
+        }
         System.out.print("[IN-GAME] >>> \n");
     }
 
@@ -75,6 +83,7 @@ public class InGameUI {
                 }
             }
             case "resign" -> websocket.send(gson.toJson(new ResignCommand(authToken, gameID)));
+            case "hint" -> websocket.send(gson.toJson(new AnalyzeCommand(authToken, gameID)));
             case "leave" -> {
                 websocket.send(gson.toJson(new LeaveCommand(authToken, gameID)));
                 running = false;
@@ -169,6 +178,7 @@ public class InGameUI {
           move <from> <to> [promotion]
           redraw
           highlight <piece>
+          hint
           resign
           leave
           help
@@ -69,11 +69,12 @@ public class PostloginUI {
         }
         for (int i = 0; i < games.size(); i++) {
             GameData g = games.get(i);
-            System.out.printf("%d. %s | White: %s | Black: %s%n",
+            System.out.printf("%d. %s | White: %s | Black: %s | Material: %+.0f%n",
                     i + 1,
                     g.gameName(),
                     g.whiteUsername() == null ? "(open)" : g.whiteUsername(),
-                    g.blackUsername() == null ? "(open)" : g.blackUsername());
+                    g.blackUsername() == null ? "(open)" : g.blackUsername(),
+                    g.game() == null ? 0.0 : g.game().materialBalance() / 100.0);
         }
     }
 
@@ -125,6 +126,13 @@ public class PostloginUI {
                 System.out.println("Failed to join game.");
                 return;
             }
+            System.out.print("Play against the computer? (y/N): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                String botColor = pov == ChessGame.TeamColor.WHITE ? "BLACK" : "WHITE";
+                if (!http.addBot(gameID, botColor)) {
+                    System.out.println("Could not seat the computer; the other seat may be taken.");
+                }
+            }
         } else {
             http.joinGame(gameID, "EMPTY");
             pov = ChessGame.TeamColor.WHITE;
@@ -65,8 +65,12 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * A db.name system property overrides the file's, so tools such as the
+     * benchmarks can work in a database of their own
+     */
     private static void loadProperties(Properties props) {
-        databaseName = props.getProperty("db.name");
+        databaseName = System.getProperty("db.name", props.getProperty("db.name"));
         dbUsername = props.getProperty("db.user");
         dbPassword = props.getProperty("db.password");
 
@@ -8,5 +8,6 @@ public interface GameDAO {
     GameData getGame(int gameID) throws DataAccessException;
     Map<Integer,GameData> listGames() throws DataAccessException;
     void updateGame(int gameID, GameData gameData) throws DataAccessException;
+    void deleteGame(int gameID) throws DataAccessException;
     void clear() throws DataAccessException;
 }
@@ -1,40 +1,62 @@
 package dataaccess;
 import chess.ChessGame;
+import chess.GameSnapshot;
 import model.GameData;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Keeps games as immutable snapshots, so readers never see a game another
+ * thread is changing. Each getGame hands out a fresh ChessGame built from
+ * the latest snapshot; changes become visible when passed to updateGame.
+ */
 public class MemoryGameDAO implements GameDAO {
-    private final Map<Integer, GameData> games = new HashMap<>();
-    private int nextID = 1;
+    private final Map<Integer, StoredGame> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextID = new AtomicInteger(1);
+
+    private record StoredGame(String whiteUsername, String blackUsername, String gameName, GameSnapshot snapshot) {
+        GameData toGameData(int gameID) {
+            return new GameData(gameID, whiteUsername, blackUsername, gameName, snapshot.toGame());
+        }
+    }
 
     @Override
     public int createGame(String gameName) throws DataAccessException {
-        int gameID = nextID++;
-        GameData newGame = new GameData(gameID,null, null, gameName, new ChessGame());
-        games.put(gameID, newGame);
+        int gameID = nextID.getAndIncrement();
+        games.put(gameID, new StoredGame(null, null, gameName, new ChessGame().snapshot()));
         return gameID;
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        if (games.containsKey(gameID)) {
-            return games.get(gameID);
+        StoredGame game = games.get(gameID);
+        if (game != null) {
+            return game.toGameData(gameID);
         }
         throw new DataAccessException("Game with id " + gameID + " does not exist");
     }
 
     @Override
     public void updateGame(int gameID, GameData game) throws DataAccessException {
-        if (!games.containsKey(gameID)) {
+        StoredGame stored = new StoredGame(game.whiteUsername(), game.blackUsername(), game.gameName(),
+                game.game().snapshot());
+        if (games.replace(gameID, stored) == null) {
             throw new DataAccessException("Game not found");
         }
-        games.put(gameID, game);
     }
 
     @Override
     public Map<Integer,GameData> listGames() throws DataAccessException {
-        return new HashMap<>(games);
+        Map<Integer, GameData> list = new HashMap<>();
+        games.forEach((id, game) -> list.put(id, game.toGameData(id)));
+        return list;
+    }
+
+    @Override
+    public void deleteGame(int gameID) {
+        games.remove(gameID);
     }
 
     @Override
@@ -1,11 +1,19 @@
 package dataaccess;
 import model.GameData;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import com.google.gson.Gson;
 import chess.ChessGame;
+import chess.GameCodec;
 
+/**
+ * Stores games with their state in {@link GameCodec} binary form. Rows
+ * written as JSON by earlier versions are still read, and are rewritten in
+ * binary the next time the game is updated.
+ */
 public class SQLGameDAO implements GameDAO {
     private final Gson gson = new Gson();
 
@@ -19,10 +27,11 @@ public class SQLGameDAO implements GameDAO {
                          whiteUsername VARCHAR(255),
                          blackUsername VARCHAR(255),
                          gameName VARCHAR(255) NOT NULL,
-                         gameState TEXT
+                         gameState BLOB
                      )
                      """)) {
                 table.executeUpdate();
+                migrateStateColumn(conn);
             }
         } catch (DataAccessException | SQLException e) {
             throw new RuntimeException("Failed to initialize SQLGameDAO", e);
@@ -33,13 +42,13 @@ public class SQLGameDAO implements GameDAO {
     public int createGame(String gameName) throws DataAccessException {
         var sql = "INSERT INTO games (whiteUsername, blackUsername, gameName, gameState) VALUES (?, ?, ?, ?)";
         var chessGame = new ChessGame();
-        var gameState = gson.toJson(chessGame);
+        var gameState = GameCodec.encode(chessGame);
         try (var conn = DatabaseManager.getConnection();
              var stmt = conn.prepareStatement(sql, java.sql.Statement.RETURN_GENERATED_KEYS)) {
             stmt.setNull(1, java.sql.Types.VARCHAR);
             stmt.setNull(2, java.sql.Types.VARCHAR);
             stmt.setString(3, gameName);
-            stmt.setString(4, gameState);
+            stmt.setBytes(4, gameState);
             stmt.executeUpdate();
             try (var rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
@@ -64,8 +73,7 @@ public class SQLGameDAO implements GameDAO {
                     var white = rs.getString("whiteUsername");
                     var black = rs.getString("blackUsername");
                     var name = rs.getString("gameName");
-                    var json = rs.getString("gameState");
-                    var chessGame = gson.fromJson(json, ChessGame.class);
+                    var chessGame = readState(rs.getBytes("gameState"));
                     return new GameData(gameID, white, black, name, chessGame);
                 } else {
                     throw new DataAccessException("Game not found");
@@ -84,7 +92,7 @@ public class SQLGameDAO implements GameDAO {
             stmt.setString(1, game.whiteUsername());
             stmt.setString(2, game.blackUsername());
             stmt.setString(3, game.gameName());
-            stmt.setString(4, gson.toJson(game.game()));
+            stmt.setBytes(4, GameCodec.encode(game.game()));
             stmt.setInt(5, gameID);
             int rowsUpdated = stmt.executeUpdate();
             if (rowsUpdated == 0) {
@@ -108,8 +116,7 @@ public class SQLGameDAO implements GameDAO {
                 var white = rs.getString("whiteUsername");
                 var black = rs.getString("blackUsername");
                 var name = rs.getString("gameName");
-                var json = rs.getString("gameState");
-                var chessGame = gson.fromJson(json, ChessGame.class);
+                var chessGame = readState(rs.getBytes("gameState"));
                 games.put(id, new GameData(id, white, black, name, chessGame));
             }
         } catch (DataAccessException | SQLException e) {
@@ -118,6 +125,53 @@ public class SQLGameDAO implements GameDAO {
         return games;
     }
 
+    /**
+     * Reads a stored game in either the binary format or legacy JSON
+     */
+    private ChessGame readState(byte[] state) throws DataAccessException {
+        if (state == null) {
+            return null;
+        }
+        try {
+            if (GameCodec.isEncoded(state)) {
+                return GameCodec.decode(state).toGame();
+            }
+            return gson.fromJson(new String(state, StandardCharsets.UTF_8), ChessGame.class);
+        } catch (RuntimeException e) {
+            throw new DataAccessException("Unreadable game state", e);
+        }
+    }
+
+    /**
+     * Converts a games table created with a TEXT state column to BLOB. The JSON
+     * already stored keeps its bytes, and readState still understands it.
+     */
+    private static void migrateStateColumn(Connection conn) throws SQLException {
+        try (var column = conn.prepareStatement("""
+                SELECT DATA_TYPE FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games' AND COLUMN_NAME = 'gameState'
+                """);
+             var rs = column.executeQuery()) {
+            if (rs.next() && rs.getString(1).toLowerCase().endsWith("text")) {
+                try (var alter = conn.prepareStatement("ALTER TABLE games MODIFY gameState BLOB")) {
+                    alter.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void deleteGame(int gameID) throws DataAccessException {
+        var sql = "DELETE FROM games WHERE gameID = ?";
+        try (var conn = DatabaseManager.getConnection();
+             var stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, gameID);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error deleting game", e);
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
         var sql = "TRUNCATE games";
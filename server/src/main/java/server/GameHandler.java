@@ -85,7 +85,11 @@ public class GameHandler {
                 return;
             }
 
-            gameService.joinGame(authToken, joinReq.playerColor.toUpperCase(), joinReq.gameID);
+            if (joinReq.bot) {
+                gameService.addBot(authToken, joinReq.playerColor.toUpperCase(), joinReq.gameID);
+            } else {
+                gameService.joinGame(authToken, joinReq.playerColor.toUpperCase(), joinReq.gameID);
+            }
             ctx.status(200)
                     .result(gson.toJson(Map.of()));
 
@@ -107,6 +111,7 @@ public class GameHandler {
     private static class JoinGameRequest {
         String playerColor;
         int gameID;
+        boolean bot;
     }
 }
 
@@ -1,9 +1,14 @@
 package server;
 
+import chess.book.OpeningBook;
+import chess.tablebase.Tablebases;
 import io.javalin.Javalin;
 import dataaccess.*;
 import service.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class Server {
     private final UserDAO userDAO = new SQLUserDAO();
     private final AuthDAO authDAO = new SQLAuthDAO();
@@ -16,11 +21,13 @@ public class Server {
     private final UserHandler userHandler = new UserHandler(userService);
     private final GameHandler gameHandler = new GameHandler(gameService);
 
+    private final WebsocketHandler websocketHandler = new WebsocketHandler(userService, gameService);
     private final Javalin javalin;
 
     public Server() {
         javalin = Javalin.create(config -> config.staticFiles.add("/web"));
-        WebsocketHandler websocketHandler = new WebsocketHandler(userService, gameService);
+        loadOpeningBook(System.getProperty("chess.book"));
+        loadTablebases(System.getProperty("chess.tablebases"));
         websocketHandler.register(javalin);
 
 
@@ -32,6 +39,41 @@ public class Server {
         javalin.post("/game", gameHandler::createGame);
         javalin.get("/game", gameHandler::listGames);
         javalin.put("/game", gameHandler::joinGame);
+        javalin.get("/metrics/websocket", websocketHandler::metrics);
+    }
+
+    /**
+     * Loads the opening book named by -Dchess.book, if any. The server still
+     * starts without it; bots then search every move.
+     */
+    private void loadOpeningBook(String file) {
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        try {
+            OpeningBook book = OpeningBook.open(Path.of(file));
+            gameService.setOpeningBook(book);
+            System.out.println("Opening book loaded: " + book.size() + " entries");
+        } catch (IOException e) {
+            System.out.println("Opening book not loaded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the endgame tables in the directory named by -Dchess.tablebases,
+     * if any. Without them, endgames are played out to the end.
+     */
+    private void loadTablebases(String directory) {
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+        try {
+            Tablebases tablebases = Tablebases.open(Path.of(directory));
+            gameService.setTablebases(tablebases);
+            System.out.println("Tablebases loaded: " + tablebases.size() + " tables");
+        } catch (IOException e) {
+            System.out.println("Tablebases not loaded: " + e.getMessage());
+        }
     }
 
     public int run(int desiredPort) {
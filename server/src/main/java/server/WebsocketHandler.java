@@ -1,6 +1,10 @@
 package server;
 
+import chess.ChessGame;
+import chess.Fen;
+import chess.GameSnapshot;
 import dataaccess.*;
+import io.javalin.http.Context;
 import io.javalin.websocket.WsCloseContext;
 import io.javalin.websocket.WsMessageContext;
 import model.*;
@@ -14,20 +18,39 @@ import websocket.messages.*;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 public class WebsocketHandler {
 
     private final UserService userService;
     private final GameService gameService;
+    private final AnalysisService analysisService;
     private final Gson gson = new Gson();
     private final Map<Integer, Set<WsContext>> gameSessions = new ConcurrentHashMap<>();
     private final Map<WsContext, String> sessionToUsername = new ConcurrentHashMap<>();
     private final Map<WsContext, Integer> sessionToGameID = new ConcurrentHashMap<>();
+    private final Set<WsContext> fenSessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Messages serialized and frames sent; a broadcast serializes once and
+     * sends the same text to every session, so frames outnumber encodes
+     */
+    private final LongAdder encodes = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
 
     public WebsocketHandler(UserService userService, GameService gameService) {
+        this(userService, gameService, new AnalysisService());
+    }
+
+    public WebsocketHandler(UserService userService, GameService gameService, AnalysisService analysisService) {
         this.userService = userService;
         this.gameService = gameService;
+        this.analysisService = analysisService;
+        gameService.setBotMoveListener((gameID, snapshot) -> announceMove(gameID, snapshot, BotPlayer.USERNAME, null));
     }
 
     public void register(Javalin javalin) {
@@ -60,6 +83,8 @@ public class WebsocketHandler {
                         handleLeave(gson.fromJson(message, LeaveCommand.class), ctx);
                 case RESIGN ->
                         handleResign(gson.fromJson(message, ResignCommand.class), ctx);
+                case ANALYZE ->
+                        handleAnalyze(gson.fromJson(message, AnalyzeCommand.class), ctx);
             }
         } catch (UnauthorizedException e) {
             throw new RuntimeException(e);
@@ -71,6 +96,7 @@ public class WebsocketHandler {
     private void handleClose(WsCloseContext ctx) {
         Integer gameID = sessionToGameID.remove(ctx);
         String username = sessionToUsername.remove(ctx);
+        fenSessions.remove(ctx);
 
         if (gameID == null) {
             return;
@@ -100,7 +126,12 @@ public class WebsocketHandler {
             sessionToUsername.put(ctx, username);
             sessionToGameID.put(ctx, command.getGameID());
             gameSessions.computeIfAbsent(command.getGameID(), k -> ConcurrentHashMap.newKeySet()).add(ctx);
-            send(ctx, new LoadGameMessage(game.game()));
+            if (command.getBoardFormat() == ConnectCommand.BoardFormat.FEN) {
+                fenSessions.add(ctx);
+                send(ctx, LoadGameMessage.fen(game.game().snapshot()));
+            } else {
+                send(ctx, new LoadGameMessage(game.game()));
+            }
             broadcast(command.getGameID(), new NotificationMessage(buildJoinMessage(username, game)), ctx);
         } catch (UnauthorizedException e) {
             send(ctx, new ErrorMessage("Error: " + e.getMessage()));
@@ -118,10 +149,9 @@ public class WebsocketHandler {
             }
             String username = sessionToUsername.get(ctx);
             userService.authenticate(command.getAuthToken());
-            gameService.makeMove(command.getAuthToken(), gameID, command.getMove());
-            GameData updatedGame = gameService.getGame(command.getAuthToken(), gameID);
-            broadcast(gameID, new LoadGameMessage(updatedGame.game()), null);
-            broadcast(gameID, new NotificationMessage(username + " made a move"), ctx);
+            GameSnapshot snapshot = gameService.makeMove(command.getAuthToken(), gameID, command.getMove());
+            announceMove(gameID, snapshot, username, ctx);
+            gameService.requestBotMove(gameID);
         } catch (UnauthorizedException e) {
             send(ctx, new ErrorMessage("Error: " + e.getMessage()));
         } catch (Exception e) {
@@ -129,9 +159,27 @@ public class WebsocketHandler {
         }
     }
 
+    /**
+     * Sends the new board to everyone on the game, tells everyone but the mover
+     * who moved, and announces check, mate or a draw
+     */
+    private void announceMove(int gameID, GameSnapshot snapshot, String username, WsContext mover) {
+        broadcastGame(gameID, snapshot);
+        broadcast(gameID, new NotificationMessage(username + " made a move"), mover);
+        if (snapshot.getStatus() != ChessGame.GameStatus.NORMAL) {
+            try {
+                GameData players = gameService.getGameWithoutAuth(gameID);
+                broadcast(gameID, new NotificationMessage(buildStatusMessage(players, snapshot)), null);
+            } catch (DataAccessException e) {
+                System.out.println("Could not announce status for game " + gameID + ": " + e.getMessage());
+            }
+        }
+    }
+
     private void handleLeave(LeaveCommand command, WsContext ctx) throws UnauthorizedException, DataAccessException {
         Integer gameID = sessionToGameID.remove(ctx);
         String username = sessionToUsername.remove(ctx);
+        fenSessions.remove(ctx);
         if (gameID == null) {
             return;
         }
@@ -139,19 +187,7 @@ public class WebsocketHandler {
         if (sessions != null) {
             sessions.remove(ctx);
         }
-        GameData game = gameService.getGameWithoutAuth(gameID);
-        boolean updated = false;
-        if (game.whiteUsername() != null && game.whiteUsername().equals(username)) {
-            game = new GameData(gameID, null, game.blackUsername(), game.gameName(), game.game());
-            updated = true;
-        }
-        if (game.blackUsername() != null && game.blackUsername().equals(username)) {
-            game = new GameData(gameID, game.whiteUsername(), null, game.gameName(), game.game());
-            updated = true;
-        }
-        if (updated) {
-            gameService.updateGameWithoutAuth(gameID, game);
-        }
+        gameService.leaveGame(gameID, username);
         broadcast(gameID, new NotificationMessage(username + " left the game"), ctx);
     }
 
@@ -171,16 +207,150 @@ public class WebsocketHandler {
         }
     }
 
+    /**
+     * Replies with an analysis of the game's current position once it is
+     * ready, without holding up this thread
+     */
+    private void handleAnalyze(AnalyzeCommand command, WsContext ctx) {
+        try {
+            Integer gameID = sessionToGameID.get(ctx);
+            if (gameID == null) {
+                send(ctx, new ErrorMessage("Error: Not connected to a game"));
+                return;
+            }
+            userService.authenticate(command.getAuthToken());
+            ChessGame game = gameService.getGameWithoutAuth(gameID).game();
+            String fen = Fen.write(game);
+            int materialBalance = game.materialBalance();
+            analysisService.analyze(game).whenComplete((result, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof RejectedExecutionException) {
+                    send(ctx, new ErrorMessage("Error: Analysis is busy, try again later"));
+                } else if (cause != null) {
+                    send(ctx, new ErrorMessage("Error: Analysis failed: " + cause.getMessage()));
+                } else {
+                    send(ctx, new AnalysisMessage(fen, materialBalance, result));
+                }
+            });
+        } catch (UnauthorizedException | DataAccessException e) {
+            send(ctx, new ErrorMessage("Error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * @return messages serialized to JSON so far
+     */
+    public long getEncodes() {
+        return encodes.sum();
+    }
+
+    /**
+     * @return frames sent so far, counting each recipient of a broadcast
+     */
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    /**
+     * @return UTF-8 bytes of message text sent so far
+     */
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * Replies with the running totals, for watching a live server or a load run
+     */
+    public void metrics(Context ctx) {
+        ctx.status(200).result(gson.toJson(Map.of(
+                "encodes", getEncodes(),
+                "framesSent", getFramesSent(),
+                "bytesOut", getBytesOut())));
+    }
+
     private void send(WsContext ctx, ServerMessage msg) {
-        ctx.send(gson.toJson(msg));
+        send(ctx, encode(msg));
+    }
+
+    private void send(WsContext ctx, Frame frame) {
+        ctx.send(frame.json());
+        framesSent.increment();
+        bytesOut.add(frame.bytes());
     }
 
+    private Frame encode(ServerMessage msg) {
+        encodes.increment();
+        String json = gson.toJson(msg);
+        return new Frame(json, utf8Length(json));
+    }
+
+    /**
+     * Serializes the message once, on the first session it goes to, and sends
+     * that text to every session on the game except exclude
+     */
     private void broadcast(int gameID, ServerMessage msg, WsContext exclude) {
+        Frame frame = null;
         for (WsContext s : gameSessions.getOrDefault(gameID, Set.of())) {
             if (exclude == null || !s.equals(exclude)) {
-                send(s, msg);
+                frame = frame == null ? encode(msg) : frame;
+                send(s, frame);
+            }
+        }
+    }
+
+    /**
+     * Sends a LOAD_GAME to every session on the game, as FEN to the sessions
+     * that asked for it and as the full game to the rest; each form is
+     * serialized at most once
+     */
+    private void broadcastGame(int gameID, GameSnapshot snapshot) {
+        Frame full = null;
+        Frame fen = null;
+        for (WsContext s : gameSessions.getOrDefault(gameID, Set.of())) {
+            if (fenSessions.contains(s)) {
+                fen = fen == null ? encode(LoadGameMessage.fen(snapshot)) : fen;
+                send(s, fen);
+            } else {
+                full = full == null ? encode(new LoadGameMessage(snapshot)) : full;
+                send(s, full);
+            }
+        }
+    }
+
+    private static int utf8Length(String text) {
+        int bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800 && !Character.isSurrogate(c)) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                bytes += 1;
             }
         }
+        return bytes;
+    }
+
+    /**
+     * A serialized message, shared by every session it is sent to
+     */
+    private record Frame(String json, int bytes) {
+    }
+
+    private String buildStatusMessage(GameData game, GameSnapshot snapshot) {
+        String player = snapshot.getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? game.whiteUsername() : game.blackUsername();
+        return switch (snapshot.getStatus()) {
+            case CHECK -> player + " is in check";
+            case CHECKMATE -> player + " is in checkmate";
+            case STALEMATE -> player + " is in stalemate";
+            case THREEFOLD_REPETITION -> "Draw by threefold repetition";
+            case FIFTY_MOVE_RULE -> "Draw by the fifty-move rule";
+            case INSUFFICIENT_MATERIAL -> "Draw by insufficient material";
+            case TABLEBASE_WIN -> player + " has a forced mate; game adjudicated";
+            case TABLEBASE_LOSS -> player + " cannot avoid mate; game adjudicated";
+            case TABLEBASE_DRAW -> "Draw: neither side can force mate";
+            case NORMAL -> "";
+        };
     }
 
     private String buildJoinMessage(String username, GameData game) {
@@ -0,0 +1,153 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analyzes positions for hints on a fixed pool of threads.
+ * <p>
+ * Results are cached server-wide by position key, so positions reached in
+ * many games, such as common openings, are searched once. The cache keeps the
+ * most recently used positions up to a fixed count. Requests for a position
+ * already being searched wait for that search instead of starting another.
+ * When the queue is full, requests fail at once rather than wait. Each thread
+ * searches with its own transposition table, so one analysis never ages out
+ * entries another is still searching with.
+ */
+public class AnalysisService {
+    private final SearchLimits limits;
+    private final int cacheSize;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Engine> engines;
+
+    /**
+     * Least recently used first; guarded by itself
+     */
+    private final LinkedHashMap<Long, SearchResult> cache;
+    private final Map<Long, CompletableFuture<SearchResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+
+    public AnalysisService() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 32, 4096,
+                new SearchLimits(10, 0, 500), 8);
+    }
+
+    /**
+     * @param threads        searches run at once
+     * @param queueSize      searches that may wait for a thread
+     * @param cacheSize      positions to keep results for
+     * @param limits         budget for each search
+     * @param tableMegabytes transposition table for each searching thread
+     */
+    public AnalysisService(int threads, int queueSize, int cacheSize, SearchLimits limits, int tableMegabytes) {
+        this.limits = limits;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SearchResult> eldest) {
+                return size() > AnalysisService.this.cacheSize;
+            }
+        };
+        this.engines = ThreadLocal.withInitial(() -> new Engine(new TranspositionTable(tableMegabytes)));
+        AtomicInteger workerNumber = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), task -> {
+                    Thread thread = new Thread(task, "analysis-" + workerNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Analyzes the game's current position. The game is copied, so the caller
+     * may keep using it.
+     *
+     * @return the result, completed exceptionally with
+     * {@link RejectedExecutionException} if the server is too busy
+     */
+    public CompletableFuture<SearchResult> analyze(ChessGame game) {
+        long key = game.positionKey();
+        SearchResult cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<SearchResult> created = new CompletableFuture<>();
+        CompletableFuture<SearchResult> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            coalesced.increment();
+            return running;
+        }
+        ChessGame position = game.copy();
+        try {
+            executor.execute(() -> search(key, position, created));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private void search(long key, ChessGame position, CompletableFuture<SearchResult> result) {
+        try {
+            SearchResult searched = engines.get().search(position, limits);
+            searches.increment();
+            synchronized (cache) {
+                cache.put(key, searched);
+            }
+            result.complete(searched);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, result);
+        }
+    }
+
+    /**
+     * @return requests answered from the cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return requests that joined a search already running for their position
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return searches run
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public int getCachedPositions() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package service;
+
+import chess.GameSnapshot;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
+import dataaccess.DataAccessException;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Computes and plays moves for bot seats on its own fixed pool of threads,
+ * so request and WebSocket threads only ever hand work off.
+ * <p>
+ * Every search is bounded by a time budget. When more games are waiting than
+ * there are threads, each search also gets shallower and shorter, so replies
+ * keep coming quickly instead of piling up behind deep searches. If the queue
+ * is still full, the game waits in an overflow list that pool threads drain
+ * at depth 1 once their own search is done; a caller's thread never searches.
+ */
+public class BotPlayer {
+    /**
+     * Username stored in a bot's seat; registration refuses it
+     */
+    public static final String USERNAME = "<computer>";
+
+    private static final int TABLE_MEGABYTES = 8;
+
+    private final GameService gameService;
+    private final int maxDepth;
+    private final long moveMillis;
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Engine> engines =
+            ThreadLocal.withInitial(() -> new Engine(new TranspositionTable(TABLE_MEGABYTES)));
+
+    /**
+     * Games with a bot move queued or running, so each is queued at most once
+     */
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Games turned away by a full queue; a full queue means some task has yet
+     * to start, and every task drains this list when it finishes
+     */
+    private final Queue<Integer> overflow = new ConcurrentLinkedQueue<>();
+
+    private volatile BiConsumer<Integer, GameSnapshot> onMove = (gameID, snapshot) -> { };
+
+    /**
+     * @param threads    searches run at once
+     * @param queueSize  searches that may wait for a thread
+     * @param maxDepth   search depth when the pool is not backed up
+     * @param moveMillis time budget for one move
+     */
+    BotPlayer(GameService gameService, int threads, int queueSize, int maxDepth, long moveMillis) {
+        this.gameService = gameService;
+        this.threads = threads;
+        this.maxDepth = maxDepth;
+        this.moveMillis = moveMillis;
+        AtomicInteger botNumber = new AtomicInteger(1);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), task -> {
+                    Thread thread = new Thread(task, "bot-" + botNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Sets who is told about each move a bot plays
+     */
+    void setOnMove(BiConsumer<Integer, GameSnapshot> onMove) {
+        this.onMove = onMove;
+    }
+
+    /**
+     * Queues a move for the game's bot seat if it is the bot's turn
+     */
+    void requestMove(int gameID) {
+        if (!pending.add(gameID)) {
+            return;
+        }
+        int depth = depthForLoad();
+        long millis = moveMillis * depth / maxDepth;
+        try {
+            executor.execute(() -> {
+                try {
+                    play(gameID, new SearchLimits(depth, 0, Math.max(1, millis)));
+                } finally {
+                    drainOverflow();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                pending.remove(gameID);
+            } else {
+                overflow.add(gameID);
+            }
+        }
+    }
+
+    /**
+     * @return maxDepth while every waiting game has a thread, one ply less for
+     * each further thread's worth of waiting games
+     */
+    int depthForLoad() {
+        int backlog = executor.getActiveCount() + executor.getQueue().size();
+        return Math.max(1, maxDepth - backlog / threads);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void drainOverflow() {
+        Integer gameID;
+        while ((gameID = overflow.poll()) != null) {
+            play(gameID, SearchLimits.depth(1));
+        }
+    }
+
+    private void play(int gameID, SearchLimits limits) {
+        GameSnapshot snapshot = null;
+        try {
+            snapshot = gameService.playBotMove(gameID, engines.get(), limits);
+        } catch (DataAccessException | RuntimeException e) {
+            System.out.println("Bot move failed for game " + gameID + ": " + e.getMessage());
+        } finally {
+            pending.remove(gameID);
+        }
+        if (snapshot != null) {
+            onMove.accept(gameID, snapshot);
+            if (!snapshot.isGameOver()) {
+                gameService.requestBotMove(gameID);
+            }
+        }
+    }
+}
@@ -1,16 +1,69 @@
 package service;
 import chess.*;
+import chess.book.OpeningBook;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.tablebase.Tablebases;
 import dataaccess.*;
 import model.*;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 
 public class GameService {
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
 
+    /**
+     * One lock per game so moves and resignations on a game are applied by a
+     * single writer at a time; readers work from snapshots and never lock
+     */
+    private final Map<Integer, Object> gameLocks = new ConcurrentHashMap<>();
+
+    private final BotPlayer bots;
+    private volatile OpeningBook openingBook;
+    private volatile Tablebases tablebases;
+
     public GameService(GameDAO gameDAO, AuthDAO authDAO) {
+        this(gameDAO, authDAO, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64, 6, 1000);
+    }
+
+    /**
+     * @param botThreads    bot searches run at once
+     * @param botQueueSize  bot searches that may wait for a thread
+     * @param botDepth      bot search depth when the server is not busy
+     * @param botMoveMillis time budget for one bot move
+     */
+    public GameService(GameDAO gameDAO, AuthDAO authDAO,
+                       int botThreads, int botQueueSize, int botDepth, long botMoveMillis) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
+        this.bots = new BotPlayer(this, botThreads, botQueueSize, botDepth, botMoveMillis);
+    }
+
+    /**
+     * Sets the book bots play from while a game is in it; null for none
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Sets the endgame tables used to end games whose result is already
+     * decided, and to guide bots; null for none
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Sets who is told about each move a bot plays, to broadcast it the same
+     * way as a player's move
+     */
+    public void setBotMoveListener(BiConsumer<Integer, GameSnapshot> listener) {
+        bots.setOnMove(listener);
     }
 
     public Map<Integer,GameData> listGames(String authToken) throws DataAccessException, UnauthorizedException{
@@ -33,11 +86,41 @@ public class GameService {
         if (auth == null) {
             throw new UnauthorizedException("Invalid or expired auth token");
         }
-        GameData game = gameDAO.getGame(gameID);
-        if (game == null) {
-            throw new DataAccessException("Game not found");
+        synchronized (lockFor(gameID)) {
+            GameData game = gameDAO.getGame(gameID);
+            if (game == null) {
+                throw new DataAccessException("Game not found");
+            }
+            seat(gameID, game, color, auth.username());
         }
-        String username = auth.username();
+    }
+
+    /**
+     * Seats a bot, which replies to every move made against it
+     */
+    public void addBot(String authToken, String color, int gameID) throws DataAccessException, UnauthorizedException, AlreadyTakenException {
+        AuthData auth = authDAO.getAuth(authToken);
+        if (auth == null) {
+            throw new UnauthorizedException("Invalid or expired auth token");
+        }
+        if (!color.equalsIgnoreCase("WHITE") && !color.equalsIgnoreCase("BLACK")) {
+            throw new IllegalArgumentException("Invalid color; must be WHITE or BLACK");
+        }
+        synchronized (lockFor(gameID)) {
+            GameData game = gameDAO.getGame(gameID);
+            if (game == null) {
+                throw new DataAccessException("Game not found");
+            }
+            seat(gameID, game, color, BotPlayer.USERNAME);
+        }
+        requestBotMove(gameID);
+    }
+
+    /**
+     * Stores a player in a seat; the caller holds the game's lock
+     */
+    private void seat(int gameID, GameData game, String color, String username)
+            throws DataAccessException, AlreadyTakenException {
         switch (color.toUpperCase()) {
             case "BLACK":
                 if (game.blackUsername() != null && !game.blackUsername().trim().equalsIgnoreCase(username.trim())) {
@@ -74,7 +157,20 @@ public class GameService {
         return game;
     }
 
-    public void makeMove(String authToken, int gameID, ChessMove move)
+    /**
+     * Applies a move and stores the result. A bot seat's reply is not queued
+     * here; call {@link #requestBotMove} once the move has been announced.
+     *
+     * @return a snapshot of the game after the move, for broadcasting
+     */
+    public GameSnapshot makeMove(String authToken, int gameID, ChessMove move)
+            throws DataAccessException, UnauthorizedException, InvalidMoveException {
+        synchronized (lockFor(gameID)) {
+            return makeMoveLocked(authToken, gameID, move).game().snapshot();
+        }
+    }
+
+    private GameData makeMoveLocked(String authToken, int gameID, ChessMove move)
             throws DataAccessException, UnauthorizedException, InvalidMoveException {
 
         AuthData auth = authDAO.getAuth(authToken);
@@ -106,21 +202,116 @@ public class GameService {
         }
 
         game.makeMove(move);
-
-        gameDAO.updateGame(
+        adjudicate(game);
+        GameData updated = new GameData(
                 gameID,
-                new GameData(
-                        gameID,
-                        gameData.whiteUsername(),
-                        gameData.blackUsername(),
-                        gameData.gameName(),
-                        game
-                )
+                gameData.whiteUsername(),
+                gameData.blackUsername(),
+                gameData.gameName(),
+                game
         );
+        gameDAO.updateGame(gameID, updated);
+        return updated;
+    }
+
+    /**
+     * Queues a bot move if the side to move is a bot
+     */
+    public void requestBotMove(int gameID) {
+        try {
+            if (isBotTurn(gameDAO.getGame(gameID))) {
+                bots.requestMove(gameID);
+            }
+        } catch (DataAccessException e) {
+            System.out.println("Bot move failed for game " + gameID + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Plays the bot's move, from the opening book if the position is in it and
+     * otherwise by searching. The search runs without the game's lock; if the
+     * game changed meanwhile, nothing is played.
+     *
+     * @return a snapshot after the move, or null if no move was played
+     */
+    GameSnapshot playBotMove(int gameID, Engine engine, SearchLimits limits) throws DataAccessException {
+        GameData before = gameDAO.getGame(gameID);
+        if (!isBotTurn(before)) {
+            return null;
+        }
+        long positionKey = before.game().positionKey();
+        OpeningBook book = openingBook;
+        ChessMove move = book == null ? null : book.pick(before.game(), ThreadLocalRandom.current());
+        if (move == null) {
+            engine.setTablebases(tablebases);
+            SearchResult result = engine.search(before.game(), limits);
+            move = result.bestMove();
+        }
+        if (move == null) {
+            // The budget ran out before the first iteration finished
+            move = anyLegalMove(before.game());
+        }
+        if (move == null) {
+            return null;
+        }
+
+        synchronized (lockFor(gameID)) {
+            GameData gameData = gameDAO.getGame(gameID);
+            if (!isBotTurn(gameData) || gameData.game().positionKey() != positionKey) {
+                return null;
+            }
+            ChessGame game = gameData.game();
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Bot chose an illegal move " + move, e);
+            }
+            adjudicate(game);
+            gameDAO.updateGame(gameID, new GameData(gameID, gameData.whiteUsername(),
+                    gameData.blackUsername(), gameData.gameName(), game));
+            return game.snapshot();
+        }
+    }
+
+    /**
+     * Ends the game early if the tablebases know its result
+     */
+    private void adjudicate(ChessGame game) {
+        Tablebases tables = tablebases;
+        if (tables == null || game.isGameOver()) {
+            return;
+        }
+        int result = tables.probe(game);
+        if (result == Tablebases.UNKNOWN) {
+            return;
+        }
+        game.adjudicate(result == 0 ? ChessGame.GameStatus.TABLEBASE_DRAW
+                : result > 0 ? ChessGame.GameStatus.TABLEBASE_WIN : ChessGame.GameStatus.TABLEBASE_LOSS);
+    }
+
+    private static ChessMove anyLegalMove(ChessGame game) {
+        int[] moves = new int[Move.MAX_MOVES];
+        return game.generateLegalMoves(moves) > 0 ? Move.toChessMove(moves[0]) : null;
+    }
+
+    private static boolean isBotTurn(GameData gameData) {
+        if (gameData == null || gameData.game().isGameOver()) {
+            return false;
+        }
+        String toMove = gameData.game().getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? gameData.whiteUsername() : gameData.blackUsername();
+        return BotPlayer.USERNAME.equals(toMove);
     }
 
     public void resignGame(String authToken, int gameID)
             throws DataAccessException, UnauthorizedException {
+        synchronized (lockFor(gameID)) {
+            resignGameLocked(authToken, gameID);
+        }
+    }
+
+    private void resignGameLocked(String authToken, int gameID)
+            throws DataAccessException, UnauthorizedException {
 
         AuthData auth = authDAO.getAuth(authToken);
         if (auth == null) {
@@ -160,10 +351,28 @@ public class GameService {
 
     public void clear() throws DataAccessException {
         gameDAO.clear();
+        gameLocks.clear();
     }
 
-    public void updateGameWithoutAuth(int gameID, GameData game) throws DataAccessException {
-        gameDAO.updateGame(gameID, game);
+    /**
+     * Frees any seat the user holds in the game
+     */
+    public void leaveGame(int gameID, String username) throws DataAccessException {
+        synchronized (lockFor(gameID)) {
+            GameData game = getGameWithoutAuth(gameID);
+            boolean updated = false;
+            if (username.equals(game.whiteUsername())) {
+                game = new GameData(gameID, null, game.blackUsername(), game.gameName(), game.game());
+                updated = true;
+            }
+            if (username.equals(game.blackUsername())) {
+                game = new GameData(gameID, game.whiteUsername(), null, game.gameName(), game.game());
+                updated = true;
+            }
+            if (updated) {
+                gameDAO.updateGame(gameID, game);
+            }
+        }
     }
 
     public GameData getGameWithoutAuth(int gameID) throws DataAccessException {
@@ -174,5 +383,7 @@ public class GameService {
         return game;
     }
 
-
+    private Object lockFor(int gameID) {
+        return gameLocks.computeIfAbsent(gameID, id -> new Object());
+    }
 }
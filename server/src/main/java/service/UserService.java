@@ -17,7 +17,7 @@ public class UserService {
     }
 
     public AuthData register(UserData user) throws AlreadyTakenException, DataAccessException {
-            if (userDAO.getUser(user.username()) != null) {
+            if (BotPlayer.USERNAME.equals(user.username()) || userDAO.getUser(user.username()) != null) {
                 throw new AlreadyTakenException("User already exists");
             }
             userDAO.createUser(user);
@@ -0,0 +1,51 @@
+package service;
+import static org.junit.jupiter.api.Assertions.*;
+import chess.*;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+public class AnalysisTests {
+    private AnalysisService analysisService;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = new AnalysisService(1, 4, 2, SearchLimits.depth(4), 1);
+    }
+
+    @Test
+    void concurrentRequestsShareOneSearch() throws Exception {
+        CompletableFuture<SearchResult> first = analysisService.analyze(new ChessGame());
+        CompletableFuture<SearchResult> second = analysisService.analyze(new ChessGame());
+
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, analysisService.getSearches());
+        assertEquals(1, analysisService.getCoalesced());
+    }
+
+    @Test
+    void repeatedPositionIsCached() throws Exception {
+        SearchResult searched = analysisService.analyze(new ChessGame()).get(10, TimeUnit.SECONDS);
+        CompletableFuture<SearchResult> again = analysisService.analyze(new ChessGame());
+
+        assertTrue(again.isDone(), "Cached result should be returned at once");
+        assertSame(searched, again.get());
+        assertEquals(1, analysisService.getCacheHits());
+    }
+
+    @Test
+    void cacheIsBounded() throws Exception {
+        analysisService.analyze(new ChessGame()).get(10, TimeUnit.SECONDS);
+        analysisService.analyze(Fen.parse("4k3/8/8/8/8/8/8/4K2R w - - 0 1")).get(10, TimeUnit.SECONDS);
+        analysisService.analyze(Fen.parse("4k3/8/8/8/8/8/8/4K2Q w - - 0 1")).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, analysisService.getCachedPositions());
+        analysisService.analyze(new ChessGame()).get(10, TimeUnit.SECONDS);
+        assertEquals(0, analysisService.getCacheHits(), "Oldest position should have been evicted");
+        assertEquals(4, analysisService.getSearches());
+    }
+}
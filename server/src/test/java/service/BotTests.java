@@ -0,0 +1,102 @@
+package service;
+import static org.junit.jupiter.api.Assertions.*;
+import chess.*;
+import model.*;
+import dataaccess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+public class BotTests {
+    private GameDAO gameDAO;
+    private AuthDAO authDAO;
+    private GameService gameService;
+    private final BlockingQueue<GameSnapshot> botMoves = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> botThreads = new LinkedBlockingQueue<>();
+    private final String authToken = "token";
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        authDAO = new MemoryAuthDAO();
+        authDAO.createAuth(new AuthData(authToken, "testUser"));
+        gameDAO = new MemoryGameDAO();
+        gameService = new GameService(gameDAO, authDAO, 1, 4, 2, 500);
+        gameService.setBotMoveListener((gameID, snapshot) -> botMoves.add(snapshot));
+    }
+
+    @Test
+    void botRepliesToMove() throws Exception, UnauthorizedException {
+        int id = gameService.createGame(authToken, "BotGame");
+        gameService.joinGame(authToken, "WHITE", id);
+        gameService.addBot(authToken, "BLACK", id);
+
+        gameService.makeMove(authToken, id,
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        gameService.requestBotMove(id);
+
+        GameSnapshot reply = botMoves.poll(10, TimeUnit.SECONDS);
+        assertNotNull(reply, "Bot should reply");
+        assertEquals(ChessGame.TeamColor.WHITE, reply.getTeamTurn());
+        assertEquals(BotPlayer.USERNAME, gameDAO.getGame(id).blackUsername());
+    }
+
+    @Test
+    void botWaitsUntilMoveIsAnnounced() throws Exception, UnauthorizedException {
+        int id = gameService.createGame(authToken, "Ordered");
+        gameService.joinGame(authToken, "WHITE", id);
+        gameService.addBot(authToken, "BLACK", id);
+
+        gameService.makeMove(authToken, id,
+                new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        assertNull(botMoves.poll(300, TimeUnit.MILLISECONDS), "Bot moved before being asked");
+
+        gameService.requestBotMove(id);
+        assertNotNull(botMoves.poll(10, TimeUnit.SECONDS), "Bot should reply");
+    }
+
+    @Test
+    void botMovesFirstAsWhite() throws Exception, UnauthorizedException {
+        int id = gameService.createGame(authToken, "BotWhite");
+        gameService.addBot(authToken, "WHITE", id);
+
+        GameSnapshot reply = botMoves.poll(10, TimeUnit.SECONDS);
+        assertNotNull(reply, "Bot should open");
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(id).game().getTeamTurn());
+    }
+
+    @Test
+    void botMovesStayOffCallerThreadWhenBusy() throws Exception, UnauthorizedException {
+        GameService busy = new GameService(gameDAO, authDAO, 1, 1, 6, 300);
+        busy.setBotMoveListener((gameID, snapshot) -> botThreads.add(Thread.currentThread().getName()));
+        int games = 4;
+        int[] ids = new int[games];
+        for (int i = 0; i < games; i++) {
+            ids[i] = gameService.createGame(authToken, "Busy" + i);
+            gameService.joinGame(authToken, "WHITE", ids[i]);
+        }
+        for (int id : ids) {
+            busy.addBot(authToken, "BLACK", id);
+        }
+        for (int id : ids) {
+            busy.makeMove(authToken, id,
+                    new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 8), null));
+            busy.requestBotMove(id);
+        }
+
+        for (int i = 0; i < games; i++) {
+            String thread = botThreads.poll(20, TimeUnit.SECONDS);
+            assertNotNull(thread, "Every bot should reply");
+            assertTrue(thread.startsWith("bot-"), "Bot searched on " + thread);
+        }
+    }
+
+    @Test
+    void botSeatTaken() throws Exception, UnauthorizedException {
+        int id = gameService.createGame(authToken, "Taken");
+        gameService.joinGame(authToken, "BLACK", id);
+        assertThrows(AlreadyTakenException.class, () -> gameService.addBot(authToken, "BLACK", id));
+    }
+}
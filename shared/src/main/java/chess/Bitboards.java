@@ -0,0 +1,56 @@
+package chess;
+
+/**
+ * Square and bitboard helpers shared by the board and move generation.
+ * <p>
+ * Squares are numbered 0-63 with bit 0 = a1 (row 1, column 1) and
+ * bit 63 = h8 (row 8, column 8), so square = (row - 1) * 8 + (column - 1).
+ */
+final class Bitboards {
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_8 = RANK_1 << 56;
+
+    private Bitboards() {
+    }
+
+    static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static int rowOf(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    static int colOf(int square) {
+        return (square & 7) + 1;
+    }
+
+    static boolean onBoard(int row, int col) {
+        return 1 <= row && row <= 8 && 1 <= col && col <= 8;
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(rowOf(square), colOf(square));
+    }
+
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Index of a piece kind into the per-piece bitboard array
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -10,6 +10,40 @@ import java.util.Arrays;
 public class ChessBoard {
     private ChessPiece[][] boardLayout;
 
+    /**
+     * Bitboard index over boardLayout: one mask per piece kind, one per team and
+     * one for all occupied squares. Not serialized; rebuilt from boardLayout on
+     * first use so boards read back by Gson stay consistent.
+     */
+    private static final int TEAMS = ChessGame.TeamColor.values().length;
+    private static final int PIECE_KINDS = TEAMS * 6;
+
+    /**
+     * Material signature constants; EMPTY pieces are left out so the
+     * signature fits in a long
+     */
+    private static final int SIGNED_KINDS = 12;
+    private static final long KING_SIGNATURE = signatureOf(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING) * 15
+            | signatureOf(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING) * 15;
+    private static final long WHITE_KNIGHT = signatureOf(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+    private static final long BLACK_KNIGHT = signatureOf(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+    private static final long WHITE_BISHOP = signatureOf(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+    private static final long BLACK_BISHOP = signatureOf(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private transient volatile long[] pieceMasks;
+    private transient long[] teamMasks;
+    private transient long occupiedMask;
+    private transient long zobristKey;
+
+    /**
+     * Running totals over every piece on the board, see {@link PieceSquares}
+     */
+    private transient int middlegameScore;
+    private transient int endgameScore;
+    private transient int materialBalance;
+    private transient int phase;
+
     public ChessBoard() {
        boardLayout = new ChessPiece[8][8];
     }
@@ -21,7 +55,10 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        this.boardLayout[position.getColumn()-1][position.getRow()-1] = piece;
+        if (piece != null && piece.getTeamColor() != null && piece.getPieceType() != null) {
+            piece = ChessPiece.of(piece.getTeamColor(), piece.getPieceType());
+        }
+        setPiece(Bitboards.square(position), piece);
     }
 
     /**
@@ -50,18 +87,18 @@ public class ChessBoard {
 
         // White pieces
         for (int col = 1; col <= 8; col++) {
-            addPiece(new ChessPosition(1, col),
-                    new ChessPiece(ChessGame.TeamColor.WHITE, outerRow[col - 1]));
-            addPiece(new ChessPosition(2, col),
-                    new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(1, col),
+                    ChessPiece.of(ChessGame.TeamColor.WHITE, outerRow[col - 1]));
+            addPiece(ChessPosition.of(2, col),
+                    ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
 
         // Black pieces
         for (int col = 1; col <= 8; col++) {
-            addPiece(new ChessPosition(7, col),
-                    new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(8, col),
-                    new ChessPiece(ChessGame.TeamColor.BLACK, outerRow[col - 1]));
+            addPiece(ChessPosition.of(7, col),
+                    ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(8, col),
+                    ChessPiece.of(ChessGame.TeamColor.BLACK, outerRow[col - 1]));
         }
     }
 
@@ -72,6 +109,250 @@ public class ChessBoard {
         for (int row = 0; row < 8; row++) {
             Arrays.fill(boardLayout[row], null);
         }
+        pieceMasks = new long[PIECE_KINDS];
+        teamMasks = new long[TEAMS];
+        occupiedMask = 0L;
+        zobristKey = 0L;
+        clearScores();
+    }
+
+    /**
+     * @return a board holding the same pieces, sharing no mutable state
+     */
+    ChessBoard copy() {
+        ensureIndexed();
+        ChessBoard copy = new ChessBoard();
+        for (int col = 0; col < 8; col++) {
+            copy.boardLayout[col] = boardLayout[col].clone();
+        }
+        copy.pieceMasks = pieceMasks.clone();
+        copy.teamMasks = teamMasks.clone();
+        copy.occupiedMask = occupiedMask;
+        copy.zobristKey = zobristKey;
+        copy.middlegameScore = middlegameScore;
+        copy.endgameScore = endgameScore;
+        copy.materialBalance = materialBalance;
+        copy.phase = phase;
+        return copy;
+    }
+
+    /**
+     * Gets the piece on a square index (see {@link Bitboards}), or null
+     */
+    ChessPiece pieceAt(int square) {
+        return boardLayout[square & 7][square >>> 3];
+    }
+
+    /**
+     * Places a piece (or null) on a square index, keeping the bitboards,
+     * Zobrist key and scores in step with boardLayout
+     */
+    void setPiece(int square, ChessPiece piece) {
+        ensureIndexed();
+        ChessPiece old = pieceAt(square);
+        if (old != null) {
+            toggleMasks(old, square);
+            addScores(old, square, -1);
+        }
+        boardLayout[square & 7][square >>> 3] = piece;
+        if (piece != null) {
+            toggleMasks(piece, square);
+            addScores(piece, square, 1);
+        }
+    }
+
+    /**
+     * @return bitboard of every square holding the given piece kind
+     */
+    long pieceMask(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureIndexed();
+        return pieceMasks[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given team
+     */
+    long teamMask(ChessGame.TeamColor color) {
+        ensureIndexed();
+        return teamMasks[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    long occupiedMask() {
+        ensureIndexed();
+        return occupiedMask;
+    }
+
+    /**
+     * @return Zobrist key of the piece placement, maintained incrementally by addPiece
+     */
+    long zobristKey() {
+        ensureIndexed();
+        return zobristKey;
+    }
+
+    /**
+     * @return material and piece-square score in centipawns from White's side,
+     * tapered from the middlegame tables to the endgame tables as pieces come
+     * off; maintained incrementally by addPiece
+     */
+    int positionScore() {
+        ensureIndexed();
+        return PieceSquares.blend(middlegameScore, endgameScore, phase);
+    }
+
+    /**
+     * @return White's material minus Black's in centipawns, kings excluded
+     */
+    int materialBalance() {
+        ensureIndexed();
+        return materialBalance;
+    }
+
+    /**
+     * Piece counts for both teams packed four bits per piece kind, in
+     * {@link Bitboards#pieceIndex} order. Boards with the same material have
+     * the same signature, so material can be matched against known cases in
+     * one comparison.
+     */
+    long materialSignature() {
+        ensureIndexed();
+        long signature = 0L;
+        for (int kind = 0; kind < SIGNED_KINDS; kind++) {
+            signature |= (long) Math.min(Long.bitCount(pieceMasks[kind]), 15) << (4 * kind);
+        }
+        return signature;
+    }
+
+    /**
+     * Determines if neither team has the material to ever give checkmate:
+     * kings alone, a single minor piece, or one bishop each on the same
+     * colour of square
+     */
+    boolean hasInsufficientMaterial() {
+        ensureIndexed();
+        if (teamMasks[ChessGame.TeamColor.EMPTY.ordinal()] != 0) {
+            return false;
+        }
+        long material = materialSignature() & ~KING_SIGNATURE;
+        if (material == 0 || material == WHITE_KNIGHT || material == BLACK_KNIGHT
+                || material == WHITE_BISHOP || material == BLACK_BISHOP) {
+            return true;
+        }
+        if (material != (WHITE_BISHOP | BLACK_BISHOP)) {
+            return false;
+        }
+        long bishops = pieceMask(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                | pieceMask(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        return (bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0;
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square. Looks outward
+     * from the square with each piece's attack pattern and intersects it with
+     * the attacker's pieces of that type, so no moves are generated.
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor byColor) {
+        ensureIndexed();
+        return isAttacked(square, byColor, occupiedMask);
+    }
+
+    /**
+     * Same as {@link #isAttacked(int, ChessGame.TeamColor)} with sliding pieces
+     * stopped by the given occupancy instead of the board's, e.g. with a king
+     * lifted off so it cannot hide behind itself
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor byColor, long occupied) {
+        ensureIndexed();
+        if ((Attacks.knight(square) & attackers(byColor, ChessPiece.PieceType.KNIGHT)) != 0
+                || (Attacks.king(square) & attackers(byColor, ChessPiece.PieceType.KING)) != 0
+                || (Attacks.pawn(Bitboards.opponent(byColor), square)
+                        & attackers(byColor, ChessPiece.PieceType.PAWN)) != 0) {
+            return true;
+        }
+        long queens = attackers(byColor, ChessPiece.PieceType.QUEEN);
+        long diagonal = queens | attackers(byColor, ChessPiece.PieceType.BISHOP);
+        if (diagonal != 0 && (Attacks.bishop(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = queens | attackers(byColor, ChessPiece.PieceType.ROOK);
+        return straight != 0 && (Attacks.rook(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * @return bitboard of every piece of the given team attacking a square
+     */
+    long attackersOf(int square, ChessGame.TeamColor byColor) {
+        ensureIndexed();
+        long queens = attackers(byColor, ChessPiece.PieceType.QUEEN);
+        return (Attacks.knight(square) & attackers(byColor, ChessPiece.PieceType.KNIGHT))
+                | (Attacks.king(square) & attackers(byColor, ChessPiece.PieceType.KING))
+                | (Attacks.pawn(Bitboards.opponent(byColor), square) & attackers(byColor, ChessPiece.PieceType.PAWN))
+                | (Attacks.bishop(square, occupiedMask) & (queens | attackers(byColor, ChessPiece.PieceType.BISHOP)))
+                | (Attacks.rook(square, occupiedMask) & (queens | attackers(byColor, ChessPiece.PieceType.ROOK)));
+    }
+
+    private static long signatureOf(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return 1L << (4 * Bitboards.pieceIndex(color, type));
+    }
+
+    private long attackers(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceMasks[Bitboards.pieceIndex(color, type)];
+    }
+
+    private void toggleMasks(ChessPiece piece, int square) {
+        long bit = Bitboards.bit(square);
+        pieceMasks[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] ^= bit;
+        teamMasks[piece.getTeamColor().ordinal()] ^= bit;
+        occupiedMask ^= bit;
+        zobristKey ^= Zobrist.piece(piece, square);
+    }
+
+    private void addScores(ChessPiece piece, int square, int sign) {
+        int kind = Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        middlegameScore += sign * PieceSquares.middlegame(kind, square);
+        endgameScore += sign * PieceSquares.endgame(kind, square);
+        materialBalance += sign * PieceSquares.material(kind);
+        phase += sign * PieceSquares.phase(kind);
+    }
+
+    private void clearScores() {
+        middlegameScore = 0;
+        endgameScore = 0;
+        materialBalance = 0;
+        phase = 0;
+    }
+
+    /**
+     * Builds the bitboards from boardLayout if they have not been built yet.
+     * Everything is built on a scratch board and pieceMasks, which is
+     * volatile, is assigned last, so a thread that sees it set also sees the
+     * rest; threads racing here build and store the same values.
+     */
+    private void ensureIndexed() {
+        if (pieceMasks != null) {
+            return;
+        }
+        ChessBoard indexed = new ChessBoard();
+        indexed.pieceMasks = new long[PIECE_KINDS];
+        indexed.teamMasks = new long[TEAMS];
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = pieceAt(square);
+            if (piece != null) {
+                indexed.toggleMasks(piece, square);
+                indexed.addScores(piece, square, 1);
+            }
+        }
+        teamMasks = indexed.teamMasks;
+        occupiedMask = indexed.occupiedMask;
+        zobristKey = indexed.zobristKey;
+        middlegameScore = indexed.middlegameScore;
+        endgameScore = indexed.endgameScore;
+        materialBalance = indexed.materialBalance;
+        phase = indexed.phase;
+        pieceMasks = indexed.pieceMasks;
     }
 
     /**
@@ -82,12 +363,14 @@ public class ChessBoard {
         if (this == o) {return true;};
         if (o == null || getClass() != o.getClass()) {return false;};
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(boardLayout, that.boardLayout);
+        ensureIndexed();
+        that.ensureIndexed();
+        return Arrays.equals(pieceMasks, that.pieceMasks);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(boardLayout);
+        return Long.hashCode(zobristKey());
     }
 
     @Override
@@ -1,6 +1,7 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -11,10 +12,61 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame {
+    /**
+     * Most moves a single piece can have: a queen in the open, or a pawn with
+     * three promoting targets
+     */
+    private static final int MAX_PIECE_MOVES = 32;
+
+    /**
+     * Plies without a capture or pawn move after which the game is drawn
+     */
+    private static final int FIFTY_MOVE_PLIES = 100;
+
+    /**
+     * Size of the position history ring; a power of two above FIFTY_MOVE_PLIES,
+     * since no earlier position can repeat once the fifty-move rule applies
+     */
+    private static final int HISTORY_SIZE = 128;
+
     private TeamColor teamTurn;
     private ChessBoard board;
     private boolean gameOver;
 
+    /**
+     * Status of the side to move, valid while statusKey matches positionKey().
+     * Both are serialized so a stored game does not need to recompute it; keys
+     * are stable across JVMs, so a stale or missing status is simply recomputed.
+     */
+    private GameStatus status;
+    private long statusKey;
+
+    /**
+     * Draw bookkeeping kept by makeMove. halfmoveClock counts plies since the
+     * last capture or pawn move; positionHistory is a ring of the keys of the
+     * positions before each of those plies, indexed by plyCount, so repetition
+     * is checked against only the positions that can still recur. Allocated
+     * on the first move, or at the live length when restored from a snapshot
+     * and grown to the full ring on the next move.
+     * <p>
+     * Left out of JSON so every game sent to a client stays small; stored
+     * games keep it through {@link GameSnapshot} and {@link GameCodec}.
+     */
+    private transient int halfmoveClock;
+    private transient int plyCount;
+    private transient long[] positionHistory;
+
+    /**
+     * Undo stack for doMove/undoMove, one slot per ply. Allocated on first use
+     * and grown only when a deeper line is made, so steady-state moves allocate
+     * nothing. Not serialized.
+     */
+    private transient int[] undoMoves;
+    private transient ChessPiece[] undoMoved;
+    private transient ChessPiece[] undoCaptured;
+    private transient TeamColor[] undoTurn;
+    private transient int undoSize;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
@@ -22,17 +74,130 @@ public class ChessGame {
         gameOver = false;
     }
 
+    /**
+     * For copies and restores, which supply their own board instead of a
+     * freshly set up one
+     */
+    private ChessGame(ChessBoard board, TeamColor teamTurn) {
+        this.board = board;
+        this.teamTurn = teamTurn;
+    }
+
+    /**
+     * @return an independent game with the same position, turn and status,
+     * for work that needs its own board such as another thread
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame(board.copy(), teamTurn);
+        copy.gameOver = gameOver;
+        copy.status = status;
+        copy.statusKey = statusKey;
+        copy.halfmoveClock = halfmoveClock;
+        copy.plyCount = plyCount;
+        copy.positionHistory = positionHistory == null ? null : positionHistory.clone();
+        return copy;
+    }
+
+    /**
+     * @return an immutable copy of the current position, turn, status and draw
+     * history that other threads can read while this game keeps changing
+     */
+    public GameSnapshot snapshot() {
+        byte[] squares = new byte[64];
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.pieceAt(square);
+            if (piece != null) {
+                squares[square] = (byte) (Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1);
+            }
+        }
+        int length = positionHistory == null ? 0 : Math.min(Math.min(halfmoveClock, plyCount), HISTORY_SIZE);
+        long[] history = new long[length];
+        for (int i = 0; i < length; i++) {
+            history[i] = positionHistory[(plyCount - length + i) & (HISTORY_SIZE - 1)];
+        }
+        GameStatus current = getStatus();
+        return new GameSnapshot(squares, teamTurn, current, isGameOver(), positionKey(), halfmoveClock, history);
+    }
+
+    /**
+     * Rebuilds a live game from a snapshot
+     */
+    static ChessGame fromSnapshot(GameSnapshot snapshot) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = snapshot.pieceAt(square);
+            if (piece != null) {
+                board.setPiece(square, piece);
+            }
+        }
+        ChessGame game = new ChessGame(board, snapshot.getTeamTurn());
+        game.gameOver = snapshot.isGameOver();
+        game.halfmoveClock = snapshot.getHalfmoveClock();
+        int length = snapshot.historyLength();
+        if (length > 0) {
+            game.positionHistory = new long[length];
+            for (int i = 0; i < length; i++) {
+                game.positionHistory[i] = snapshot.historyKey(i);
+            }
+            game.plyCount = length;
+        }
+        game.status = snapshot.getStatus();
+        game.statusKey = snapshot.positionKey();
+        return game;
+    }
+
     public void setGameOver(boolean isGameOver) {
         gameOver = isGameOver;
     }
 
+    /**
+     * Ends the game with a result decided from outside the rules of play,
+     * such as an endgame tablebase. The status holds until the next move,
+     * which the game no longer allows.
+     */
+    public void adjudicate(GameStatus result) {
+        status = result;
+        statusKey = positionKey();
+        gameOver = true;
+    }
+
     public boolean isGameOver(){
-        if (isInCheckmate(TeamColor.WHITE) || isInCheckmate(TeamColor.BLACK)) {
+        if (getStatus().endsGame()) {
             gameOver = true;
         }
         return gameOver;
     }
 
+    /**
+     * Gets the status of the team whose turn it is. Computed once per position,
+     * normally right after makeMove, and answered from the cache afterwards.
+     *
+     * @return the status for the side to move
+     */
+    public GameStatus getStatus() {
+        long key = positionKey();
+        if (status == null || statusKey != key) {
+            status = currentStatus();
+            statusKey = key;
+        }
+        return status;
+    }
+
+    /**
+     * @return plies played since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Sets the plies since the last capture or pawn move, for positions set
+     * up from outside such as FEN
+     */
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -49,6 +214,70 @@ public class ChessGame {
         teamTurn = team;
     }
 
+    /**
+     * 64-bit Zobrist key of the position: piece placement plus side to move.
+     * Equal positions always share a key, so it can stand in for the game in
+     * caches, repetition detection and position indexes.
+     */
+    public long positionKey() {
+        return board.zobristKey() ^ Zobrist.side(teamTurn);
+    }
+
+    /**
+     * @return number of pieces on the board, kings included
+     */
+    public int pieceCount() {
+        return Long.bitCount(board.occupiedMask());
+    }
+
+    /**
+     * Material plus piece placement in centipawns from White's side, blended
+     * from middlegame to endgame values as pieces come off. Kept up to date
+     * as moves are made, so reading it costs nothing.
+     */
+    public int positionScore() {
+        return board.positionScore();
+    }
+
+    /**
+     * @return White's material minus Black's in centipawns
+     */
+    public int materialBalance() {
+        return board.materialBalance();
+    }
+
+    /**
+     * Enum identifying the state of the side to move
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE,
+        INSUFFICIENT_MATERIAL,
+        /**
+         * Adjudicated: the side to move has a forced mate
+         */
+        TABLEBASE_WIN,
+        /**
+         * Adjudicated: the side to move cannot avoid being mated
+         */
+        TABLEBASE_LOSS,
+        /**
+         * Adjudicated: neither side can force mate
+         */
+        TABLEBASE_DRAW;
+
+        /**
+         * @return True if no more moves may be made in this state
+         */
+        public boolean endsGame() {
+            return this != NORMAL && this != CHECK;
+        }
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -71,22 +300,57 @@ public class ChessGame {
             return null;
         }
 
-        Collection<ChessMove> moveList = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        for (ChessMove move : moveList) {
-            ChessPiece tempPiece = board.getPiece(move.getEndPosition());
-            board.addPiece(startPosition, null);
-            board.addPiece(move.getEndPosition(), piece);
-            if (!isInCheck(piece.getTeamColor())) {
-                validMoves.add(move);
-            }
-            board.addPiece(move.getEndPosition(), tempPiece);
-            board.addPiece(startPosition, piece);
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = legalPieceMoves(piece, Bitboards.square(startPosition), moves);
+        Collection<ChessMove> validMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            validMoves.add(Move.toChessMove(moves[i]));
         }
         return validMoves;
     }
 
+    /**
+     * Fills a buffer with every legal move for the team whose turn it is
+     *
+     * @param buffer receives packed {@link Move} ints; should hold at least
+     *               {@link Move#MAX_MOVES} entries
+     * @return the number of moves written
+     */
+    public int generateLegalMoves(int[] buffer) {
+        return LegalMoves.generate(board, teamTurn, -1L, buffer, 0);
+    }
+
+    /**
+     * Fills a buffer with the legal captures for the team whose turn it is
+     *
+     * @param buffer receives packed {@link Move} ints; should hold at least
+     *               {@link Move#MAX_MOVES} entries
+     * @return the number of moves written
+     */
+    public int generateLegalCaptures(int[] buffer) {
+        long targets = board.occupiedMask() & ~board.teamMask(teamTurn);
+        return LegalMoves.generate(board, teamTurn, -1L, targets, buffer, 0);
+    }
+
+    /**
+     * @return an iterator over the legal moves of the team whose turn it is,
+     * king moves first, then captures, then quiet moves
+     */
+    public MoveIterator moveIterator() {
+        return new MoveIterator(board, teamTurn);
+    }
+
+    /**
+     * Determines if a team has at least one legal move, stopping at the first
+     * one found
+     *
+     * @param color which team to look for moves for
+     * @return True if the team has a legal move
+     */
+    public boolean hasAnyLegalMove(TeamColor color) {
+        return new MoveIterator(board, color).next() != Move.NONE;
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -98,19 +362,118 @@ public class ChessGame {
         if (piece == null) {
             throw new InvalidMoveException("No piece at starting square");
         }
+        if (getTeamTurn() != piece.getTeamColor()) {
+            throw new InvalidMoveException("Invalid move");
+        }
 
-        Collection<ChessMove> possibleMoves = validMoves(move.getStartPosition());
-        boolean canMove = getTeamTurn() == board.getPiece(move.getStartPosition()).getTeamColor();
-        boolean canAdd = possibleMoves.contains(move);
-        if (possibleMoves == null || !canAdd || !canMove) {
+        if (!isLegal(move)) {
             throw new InvalidMoveException("Invalid move");
         }
-        if (move.getPromotionPiece() != null) {
-            piece = new ChessPiece(piece.getTeamColor(),move.getPromotionPiece());
+        int encoded = Move.encode(move);
+        boolean irreversible = piece.getPieceType() == ChessPiece.PieceType.PAWN
+                || board.pieceAt(Move.to(encoded)) != null;
+        recordPosition(irreversible);
+        doMove(encoded);
+        discardUndo();
+        status = currentStatus();
+        statusKey = positionKey();
+        if (status.endsGame()) {
+            gameOver = true;
         }
-        board.addPiece(move.getEndPosition(), piece);
-        board.addPiece(move.getStartPosition(), null);
-        setTeamTurn(getTeamTurn() == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
+    }
+
+    /**
+     * Adds the position about to be left to the history, or clears the
+     * history if the coming move can never be undone
+     */
+    private void recordPosition(boolean irreversible) {
+        if (positionHistory == null) {
+            positionHistory = new long[HISTORY_SIZE];
+        } else if (positionHistory.length < HISTORY_SIZE) {
+            positionHistory = Arrays.copyOf(positionHistory, HISTORY_SIZE);
+        }
+        positionHistory[plyCount & (HISTORY_SIZE - 1)] = positionKey();
+        plyCount++;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+    }
+
+    /**
+     * Determines if a move is legal for the team whose turn it is. Only the
+     * given move is examined, so rejecting a bad move costs a few lookups.
+     *
+     * @param move the move to test
+     * @return True if makeMove would accept the move
+     */
+    public boolean isLegal(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        if (!Bitboards.onBoard(start.getRow(), start.getColumn()) || !Bitboards.onBoard(end.getRow(), end.getColumn())) {
+            return false;
+        }
+        return LegalMoves.isLegal(board, teamTurn, Move.encode(move));
+    }
+
+    /**
+     * Writes the legal moves of one piece into a buffer
+     */
+    private int legalPieceMoves(ChessPiece piece, int from, int[] buffer) {
+        return LegalMoves.generate(board, piece.getTeamColor(), Bitboards.bit(from), buffer, 0);
+    }
+
+    /**
+     * Plays a move on the board without checking it, recording what is needed
+     * to take it back with {@link #undoMove()}. The turn passes to the opponent
+     * of the moving piece.
+     *
+     * @param move packed {@link Move} int
+     */
+    public void doMove(int move) {
+        if (undoMoves == null || undoSize == undoMoves.length) {
+            growUndoStack();
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        ChessPiece moved = board.pieceAt(from);
+        undoMoves[undoSize] = move;
+        undoMoved[undoSize] = moved;
+        undoCaptured[undoSize] = board.pieceAt(to);
+        undoTurn[undoSize] = teamTurn;
+        undoSize++;
+
+        board.setPiece(from, null);
+        board.setPiece(to, promotion == null ? moved : ChessPiece.of(moved.getTeamColor(), promotion));
+        teamTurn = Bitboards.opponent(moved.getTeamColor());
+    }
+
+    /**
+     * Takes back the most recent {@link #doMove}
+     */
+    public void undoMove() {
+        undoSize--;
+        int move = undoMoves[undoSize];
+        board.setPiece(Move.to(move), undoCaptured[undoSize]);
+        board.setPiece(Move.from(move), undoMoved[undoSize]);
+        teamTurn = undoTurn[undoSize];
+        undoMoved[undoSize] = null;
+        undoCaptured[undoSize] = null;
+    }
+
+    /**
+     * Keeps the most recent {@link #doMove} on the board but forgets how to undo it
+     */
+    private void discardUndo() {
+        undoSize--;
+        undoMoved[undoSize] = null;
+        undoCaptured[undoSize] = null;
+    }
+
+    private void growUndoStack() {
+        int capacity = undoMoves == null ? 16 : undoMoves.length * 2;
+        undoMoves = undoMoves == null ? new int[capacity] : Arrays.copyOf(undoMoves, capacity);
+        undoMoved = undoMoved == null ? new ChessPiece[capacity] : Arrays.copyOf(undoMoved, capacity);
+        undoCaptured = undoCaptured == null ? new ChessPiece[capacity] : Arrays.copyOf(undoCaptured, capacity);
+        undoTurn = undoTurn == null ? new TeamColor[capacity] : Arrays.copyOf(undoTurn, capacity);
     }
 
 
@@ -121,20 +484,22 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPos = findKing(teamColor);
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                ChessPosition curPos = new ChessPosition(i+1, j+1);
-                ChessPiece curPiece = board.getPiece(curPos);
-                if (curPiece != null && curPiece.getTeamColor() != teamColor) {
-                    Collection<ChessMove> enemyMoves = curPiece.pieceMoves(board, curPos);
-                    if (checkEnemyMoves(enemyMoves, kingPos)){
-                        return true;
-                    }
-                }
-            }
+        long kings = board.pieceMask(teamColor, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return false;
         }
-        return false;
+        return board.isAttacked(Long.numberOfTrailingZeros(kings), Bitboards.opponent(teamColor));
+    }
+
+    /**
+     * Determines if a square is attacked by any piece of the given team
+     *
+     * @param position the square to test
+     * @param byColor  the attacking team
+     * @return True if a piece of byColor could capture on that square
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return board.isAttacked(Bitboards.square(position), byColor);
     }
 
     public boolean checkEnemyMoves(Collection<ChessMove> enemyMoves, ChessPosition kingPos){
@@ -154,41 +519,62 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor color) {
-        if (!isInCheck(color)) {
-            return false;
-        }
+        return statusOf(color) == GameStatus.CHECKMATE;
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition start = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(start);
+    private GameStatus statusOf(TeamColor color) {
+        return color == teamTurn ? getStatus() : computeStatus(color);
+    }
 
-                if (piece != null && piece.getTeamColor() == color) {
-                    if (canEscapeCheck(piece, start, color)) {
-                        return false;
-                    }
-                }
-            }
+    /**
+     * Status of the side to move including the draw rules, which depend on
+     * the game's history rather than just the position
+     */
+    private GameStatus currentStatus() {
+        GameStatus result = computeStatus(teamTurn);
+        if (result.endsGame()) {
+            return result;
+        }
+        if (halfmoveClock >= FIFTY_MOVE_PLIES) {
+            return GameStatus.FIFTY_MOVE_RULE;
+        }
+        if (isThreefoldRepetition()) {
+            return GameStatus.THREEFOLD_REPETITION;
+        }
+        if (board.hasInsufficientMaterial()) {
+            return GameStatus.INSUFFICIENT_MATERIAL;
         }
-        return true;
+        return result;
     }
 
-
-    private boolean canEscapeCheck(ChessPiece piece, ChessPosition start, TeamColor color) {
-        for (ChessMove move : piece.pieceMoves(board, start)) {
-            ChessPiece captured = board.getPiece(move.getEndPosition());
-            board.addPiece(move.getEndPosition(), piece);
-            board.addPiece(start, null);
-            boolean stillInCheck = isInCheck(color);
-            board.addPiece(start, piece);
-            board.addPiece(move.getEndPosition(), captured);
-            if (!stillInCheck) {
+    /**
+     * Counts earlier occurrences of the current position among those since
+     * the last capture or pawn move. Only every other ply can match, as the
+     * key includes the side to move.
+     */
+    private boolean isThreefoldRepetition() {
+        if (positionHistory == null) {
+            return false;
+        }
+        long key = positionKey();
+        int reach = Math.min(Math.min(halfmoveClock, plyCount), HISTORY_SIZE);
+        int seen = 1;
+        for (int back = 2; back <= reach; back += 2) {
+            if (positionHistory[(plyCount - back) & (HISTORY_SIZE - 1)] == key && ++seen >= 3) {
                 return true;
             }
         }
         return false;
     }
 
+    private GameStatus computeStatus(TeamColor color) {
+        boolean inCheck = isInCheck(color);
+        if (hasAnyLegalMove(color)) {
+            return inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+        }
+        return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+    }
+
     /**
      * Determines if the given team is in stalemate, which here is defined as having
      * no valid moves while not in check.
@@ -197,24 +583,7 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-
-        for (int y = 1; y <= 8; y++) {
-            for (int x = 1; x <= 8; x++) {
-                Collection<ChessMove> moveList;
-                ChessPosition position = new ChessPosition(y, x);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null && teamColor == piece.getTeamColor()) {
-                    moveList = validMoves(position);
-                    if (moveList != null && !moveList.isEmpty()) {
-                        return false;
-                    }}
-            }
-        }
-        return true;
+        return statusOf(teamColor) == GameStatus.STALEMATE;
     }
 
     /**
@@ -224,6 +593,10 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        undoSize = 0;
+        halfmoveClock = 0;
+        plyCount = 0;
+        positionHistory = null;
     }
 
     /**
@@ -239,16 +612,11 @@ public class ChessGame {
      * Locates and returns the position of the King for selected team
      */
     public ChessPosition findKing(TeamColor team) {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                ChessPosition curPos = new ChessPosition(i+1,j+1);
-                ChessPiece curPiece = board.getPiece(curPos);
-                if (curPiece!=null && curPiece.getPieceType() == ChessPiece.PieceType.KING && curPiece.getTeamColor() == team){
-                    return curPos;
-                }
-            }
+        long kings = board.pieceMask(team, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return null;
         }
-        return null;
+        return Bitboards.position(Long.numberOfTrailingZeros(kings));
     }
 
     /**
@@ -269,6 +637,6 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return Long.hashCode(positionKey());
     }
 }
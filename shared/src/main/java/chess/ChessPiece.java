@@ -1,4 +1,10 @@
 package chess;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Collection;
 import java.util.ArrayList;
 import java.util.Objects;
@@ -9,15 +15,46 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPiece.GsonAdapter.class)
 public class ChessPiece {
     private final ChessPiece.PieceType pieceType;
     private final ChessGame.TeamColor pieceTeam;
 
+    static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT
+    };
+
+    private static final ChessPiece[] CANONICAL =
+            new ChessPiece[ChessGame.TeamColor.values().length * PieceType.values().length];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                CANONICAL[Bitboards.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         pieceType = type;
         pieceTeam = pieceColor;
     }
 
+    /**
+     * Shared instance for a piece kind. Pieces are immutable, so boards, move
+     * generation and deserialized games can all point at the same objects.
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return CANONICAL[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the shared instance with the given {@link Bitboards#pieceIndex}
+     */
+    static ChessPiece byIndex(int index) {
+        return CANONICAL[index];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -27,7 +64,14 @@ public class ChessPiece {
         BISHOP,
         KNIGHT,
         ROOK,
-        PAWN
+        PAWN;
+
+        /**
+         * @return material value in centipawns, the same the board's score uses
+         */
+        public int value() {
+            return PieceSquares.VALUES[ordinal()];
+        }
     }
 
     /**
@@ -52,195 +96,146 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        PieceType type = board.getPiece(myPosition).getPieceType();
-        ChessGame.TeamColor team = board.getPiece(myPosition).getTeamColor();
         Collection<ChessMove> moveList = new ArrayList<>();
-        int direction = 1;
-        if (team == ChessGame.TeamColor.BLACK) {
-            direction = -1;
-        }
+        long targets = targets(board, Bitboards.square(myPosition));
 
-        switch (type) {
-            case PAWN:
-                ChessPosition forwardOne = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn());
-                if (onBoard(forwardOne) && board.getPiece(forwardOne) == null) {
-                    if (isPromotionRank(forwardOne, team)) {
-                        addPromotionMoves(moveList, myPosition, forwardOne);
-                    } else {
-                        moveList.add(new ChessMove(myPosition, forwardOne, null));
-                    }
-                }
-                if ((team==ChessGame.TeamColor.WHITE && myPosition.getRow()==2) ||
-                        (team==ChessGame.TeamColor.BLACK && myPosition.getRow()==7)) {
-                    ChessPosition forwardTwo = new ChessPosition(myPosition.getRow() + (2 * direction), myPosition.getColumn());
-                    if (onBoard(forwardTwo) && board.getPiece(forwardOne) == null && board.getPiece(forwardTwo) == null) {
-                        ChessMove move = new ChessMove(myPosition, forwardTwo, null);
-                        moveList.add(move);
-                    }
-                }
-                for (int offset: new int[]{-1,1}) {
-                    ChessPosition diag = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() + offset );
-                    if (onBoard(diag) && board.getPiece(diag)!=null && board.getPiece(diag).getTeamColor() != team) {
-                            if (isPromotionRank(diag, team)) {
-                                addPromotionMoves(moveList, myPosition, diag);
-                            } else {
-                                moveList.add(new ChessMove(myPosition, diag, null));
-                            }
-                    }
-                }
-                break;
-            case ROOK:
-                int[][] rookDirections= {
-                        {1, 0}, //up
-                        {-1,0}, //down
-                        {0, 1}, //right
-                        {0,-1}, //left
-                };
-                calculateLinearMoves(moveList, myPosition, board, team, rookDirections);
-                break;
-            case KNIGHT:
-                int[][] knightDirections= {
-                        {2, 1}, //upright
-                        {-2,1}, //downright
-                        {2, -1}, //upleft
-                        {-2,-1}, //downleft
-                        {1,2}, //rightup
-                        {-1,2}, //rightdown
-                        {1,-2}, //leftup
-                        {-1,-2} //leftdown
-                };
-                calculateJumpMoves(moveList, myPosition, board, team, knightDirections);
-                break;
-            case BISHOP:
-                int[][] bishopDirections= {
-                        {1, 1}, //upright
-                        {-1,1}, //downright
-                        {1, -1}, //upleft
-                        {-1,-1}, //downleft
-                };
-                calculateLinearMoves(moveList, myPosition, board, team, bishopDirections);
-                break;
-            case QUEEN:
-                int[][] queenDirections= {
-                        {1, 0}, //up
-                        {-1,0}, //down
-                        {0, 1}, //right
-                        {0,-1}, //left
-                        {1, 1}, //upright
-                        {-1,1}, //downright
-                        {1, -1}, //upleft
-                        {-1,-1}, //downleft
-                };
-                calculateLinearMoves(moveList, myPosition, board, team, queenDirections);
-                break;
-            case KING:
-                int[][] kingDirections= {
-                        {1, 0}, //up
-                        {-1,0}, //down
-                        {0, 1}, //right
-                        {0,-1}, //left
-                        {1,1}, //upright
-                        {1,-1}, //upleft
-                        {-1,-1}, //downleft
-                        {-1,1}, //downright
-                };
-                calculateJumpMoves(moveList, myPosition, board, team, kingDirections);
-                break;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (pieceType == PieceType.PAWN && isPromotionRank(Bitboards.position(to), pieceTeam)) {
+                addPromotionMoves(moveList, myPosition, to);
+            } else {
+                moveList.add(Move.toChessMove(Move.encode(Bitboards.square(myPosition), to, null)));
+            }
         }
         return moveList;
     }
 
     /**
-     * Returns true when a position is in bounds
+     * Writes this piece's moves from the given square into a buffer as packed
+     * {@link Move} ints, ignoring whether they leave its king in danger
+     *
+     * @return the new number of moves in the buffer
      */
-    private boolean onBoard(ChessPosition myPosition){
-        return ( 1 <= myPosition.getRow() && myPosition.getRow() <= 8 && 1<= myPosition.getColumn() && myPosition.getColumn() <= 8 );
+    int generateMoves(ChessBoard board, int square, int[] buffer, int count) {
+        return generateMoves(board, square, -1L, buffer, count);
     }
 
     /**
-     * Helper for pawn promotion
+     * Writes only the moves whose target square is in {@code allowed}. With a
+     * null buffer the moves are counted but not written.
+     *
+     * @return the new number of moves in the buffer
      */
-    private boolean isPromotionRank(ChessPosition pos, ChessGame.TeamColor team) {
-        return (team == ChessGame.TeamColor.WHITE && pos.getRow() == 8)
-                || (team == ChessGame.TeamColor.BLACK && pos.getRow() == 1);
+    int generateMoves(ChessBoard board, int square, long allowed, int[] buffer, int count) {
+        long targets = targets(board, square) & allowed;
+        long promotionSquares = promotionSquares();
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (buffer == null) {
+                count += (promotionSquares & Bitboards.bit(to)) != 0 ? PROMOTION_TYPES.length : 1;
+            } else if ((promotionSquares & Bitboards.bit(to)) != 0) {
+                for (PieceType promo : PROMOTION_TYPES) {
+                    buffer[count++] = Move.encode(square, to, promo);
+                }
+            } else {
+                buffer[count++] = Move.encode(square, to, null);
+            }
+        }
+        return count;
     }
 
     /**
-     * Helper 2 for pawn promotion
+     * @return true if this piece must promote on reaching the given square
      */
-    private void addPromotionMoves(Collection<ChessMove> moveList, ChessPosition start, ChessPosition end) {
-        for (ChessPiece.PieceType promo : new ChessPiece.PieceType[]{
-                ChessPiece.PieceType.QUEEN,
-                ChessPiece.PieceType.ROOK,
-                ChessPiece.PieceType.BISHOP,
-                ChessPiece.PieceType.KNIGHT}) {
-            moveList.add(new ChessMove(start, end, promo));
-        }
+    boolean isPromotionSquare(int square) {
+        return (promotionSquares() & Bitboards.bit(square)) != 0;
     }
 
     /**
-     * Calculates moves for pieces with linear, nonstop movement (Rook, Bishop, Queen)
+     * @return true if a pawn may promote to the given type
      */
-    private void calculateLinearMoves(Collection<ChessMove> moveList, ChessPosition myPosition,
-                                      ChessBoard board, ChessGame.TeamColor team, int[][] directions){
-        for (int[] dir : directions) {
-            int dRow = dir[0];
-            int dCol = dir[1];
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-
-            while(true) {
-                row += dRow;
-                col += dCol;
-                ChessPosition next = new ChessPosition(row, col);
-
-                if (!onBoard(next)) {
-                    break;
-                }
+    static boolean isPromotionType(PieceType type) {
+        for (PieceType promo : PROMOTION_TYPES) {
+            if (promo == type) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-                if (board.getPiece(next)!=null){
-                    if (board.getPiece(next).getTeamColor()!=team){
-                        ChessMove move = new ChessMove(myPosition, next,null);
-                        moveList.add(move);
-                    }
-                    break;
-                }
+    private long promotionSquares() {
+        return pieceType != PieceType.PAWN ? 0L
+                : pieceTeam == ChessGame.TeamColor.WHITE ? Bitboards.RANK_8
+                : pieceTeam == ChessGame.TeamColor.BLACK ? Bitboards.RANK_1 : 0L;
+    }
 
-                ChessMove move = new ChessMove(myPosition, next,null);
-                moveList.add(move);
-            }
+    /**
+     * Bitboard of the squares this piece can move to from the given square,
+     * ignoring whether the move would leave its king in danger
+     */
+    long targets(ChessBoard board, int square) {
+        if (pieceType == PieceType.PAWN) {
+            return pawnTargets(board, square);
         }
+        return attacks(board.occupiedMask(), square) & ~board.teamMask(pieceTeam);
     }
 
     /**
-     * Calculates moves for pieces with singular movements (King, Knight)
+     * Bitboard of the squares this piece attacks from the given square,
+     * including squares held by either team
+     *
+     * @param occupied bitboard of all occupied squares, used to stop sliding pieces
      */
-    private void calculateJumpMoves(Collection<ChessMove> moveList, ChessPosition myPosition,
-                                    ChessBoard board, ChessGame.TeamColor team, int[][] directions ) {
-        for (int[] dir : directions) {
-            int dRow = dir[0];
-            int dCol = dir[1];
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
+    long attacks(long occupied, int square) {
+        return switch (pieceType) {
+            case PAWN -> Attacks.pawn(pieceTeam, square);
+            case KNIGHT -> Attacks.knight(square);
+            case KING -> Attacks.king(square);
+            case BISHOP -> Attacks.bishop(square, occupied);
+            case ROOK -> Attacks.rook(square, occupied);
+            case QUEEN -> Attacks.queen(square, occupied);
+        };
+    }
 
-            row += dRow;
-            col += dCol;
-            ChessPosition next = new ChessPosition(row, col);
+    /**
+     * Pawn pushes onto empty squares plus diagonal captures of enemy pieces
+     */
+    private long pawnTargets(ChessBoard board, int square) {
+        long occupied = board.occupiedMask();
+        long enemies = occupied & ~board.teamMask(pieceTeam);
+        long targets = attacks(occupied, square) & enemies;
 
-            if (!onBoard(next)) {
-                continue;
-            }
+        boolean black = pieceTeam == ChessGame.TeamColor.BLACK;
+        int forwardOne = square + (black ? -8 : 8);
+        if (forwardOne < 0 || forwardOne >= 64 || (occupied & Bitboards.bit(forwardOne)) != 0) {
+            return targets;
+        }
+        targets |= Bitboards.bit(forwardOne);
+        int row = Bitboards.rowOf(square);
+        boolean onStartRow = (pieceTeam == ChessGame.TeamColor.WHITE && row == 2) || (black && row == 7);
+        int forwardTwo = forwardOne + (black ? -8 : 8);
+        if (onStartRow && (occupied & Bitboards.bit(forwardTwo)) == 0) {
+            targets |= Bitboards.bit(forwardTwo);
+        }
+        return targets;
+    }
 
-            if (board.getPiece(next) != null) {
-                if (board.getPiece(next).getTeamColor() != team) {
-                    ChessMove move = new ChessMove(myPosition, next, null);
-                    moveList.add(move);
-                }
-                continue;
-            }
+    /**
+     * Helper for pawn promotion
+     */
+    private boolean isPromotionRank(ChessPosition pos, ChessGame.TeamColor team) {
+        return (team == ChessGame.TeamColor.WHITE && pos.getRow() == 8)
+                || (team == ChessGame.TeamColor.BLACK && pos.getRow() == 1);
+    }
 
-            ChessMove move = new ChessMove(myPosition, next,null);
-            moveList.add(move);
+    /**
+     * Helper 2 for pawn promotion
+     */
+    private void addPromotionMoves(Collection<ChessMove> moveList, ChessPosition start, int end) {
+        for (ChessPiece.PieceType promo : PROMOTION_TYPES) {
+            moveList.add(Move.toChessMove(Move.encode(Bitboards.square(start), end, promo)));
         }
     }
 
@@ -260,5 +255,36 @@ public class ChessPiece {
         return Objects.hash(pieceTeam, pieceType);
     }
 
+    /**
+     * Reads and writes the same JSON as Gson's default field mapping, but hands
+     * back the shared instance for each piece kind when reading
+     */
+    static class GsonAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("pieceType").value(piece.pieceType == null ? null : piece.pieceType.name());
+            out.name("pieceTeam").value(piece.pieceTeam == null ? null : piece.pieceTeam.name());
+            out.endObject();
+        }
 
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            PieceType type = null;
+            ChessGame.TeamColor team = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceType" -> type = PieceType.valueOf(in.nextString());
+                    case "pieceTeam" -> team = ChessGame.TeamColor.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (type == null || team == null) {
+                return new ChessPiece(team, type);
+            }
+            return of(team, type);
+        }
+    }
 }
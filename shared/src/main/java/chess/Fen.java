@@ -0,0 +1,193 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN) and its EPD
+ * form, which drops the two move counters and may carry operations after the
+ * position.
+ * <p>
+ * This project has no castling or en passant, so the writer always gives "-"
+ * for both fields and the parser accepts and ignores whatever they hold.
+ * Fullmove numbers are not tracked; the writer gives 1 and the parser
+ * ignores the number read. Pieces of the EMPTY team have no FEN letter and
+ * are written as empty squares.
+ */
+public final class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    /**
+     * Longest possible FEN written here: 64 piece letters, 7 slashes, and the
+     * trailing fields with a five digit halfmove clock
+     */
+    private static final int MAX_LENGTH = 64 + 7 + 20;
+
+    private static final char[] LETTERS = {'K', 'Q', 'B', 'N', 'R', 'P'};
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Fen() {
+    }
+
+    public static String write(ChessGame game) {
+        return write(game.getBoard(), null, game.getTeamTurn(), game.getHalfmoveClock(), true);
+    }
+
+    public static String write(GameSnapshot snapshot) {
+        return write(null, snapshot, snapshot.getTeamTurn(), snapshot.getHalfmoveClock(), true);
+    }
+
+    /**
+     * @return the position as EPD: placement, side to move, castling and en
+     * passant, without move counters
+     */
+    public static String writeEpd(ChessGame game) {
+        return write(game.getBoard(), null, game.getTeamTurn(), 0, false);
+    }
+
+    /**
+     * Builds a game from FEN or EPD. Missing move counters default to 0 and 1,
+     * and EPD operations after the fourth field are ignored.
+     *
+     * @throws IllegalArgumentException if the text is not a valid position
+     */
+    public static ChessGame parse(String fen) {
+        ChessBoard board = new ChessBoard();
+        board.clearBoard();
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        int row = 8;
+        int col = 1;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw bad(fen, "rank " + row + " does not have 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                ChessPiece piece = piece(c);
+                if (piece == null || col > 8) {
+                    throw bad(fen, "unexpected '" + c + "'");
+                }
+                board.setPiece(Bitboards.square(row, col), piece);
+                col++;
+            }
+            if (col > 9) {
+                throw bad(fen, "rank " + row + " has more than 8 squares");
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw bad(fen, "placement does not cover the board");
+        }
+
+        i = skipSpaces(fen, i);
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        if (i < length) {
+            char side = fen.charAt(i++);
+            if (side == 'b') {
+                turn = ChessGame.TeamColor.BLACK;
+            } else if (side != 'w') {
+                throw bad(fen, "side to move must be w or b");
+            }
+        }
+
+        // Castling rights and en passant square
+        i = skipField(fen, skipSpaces(fen, i));
+        i = skipField(fen, skipSpaces(fen, i));
+
+        i = skipSpaces(fen, i);
+        int halfmoveClock = 0;
+        if (i < length && Character.isDigit(fen.charAt(i))) {
+            for (; i < length && Character.isDigit(fen.charAt(i)); i++) {
+                halfmoveClock = Math.min(halfmoveClock * 10 + (fen.charAt(i) - '0'), 0xFFFF);
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setHalfmoveClock(halfmoveClock);
+        return game;
+    }
+
+    private static String write(ChessBoard board, GameSnapshot snapshot, ChessGame.TeamColor turn,
+                                int halfmoveClock, boolean counters) {
+        char[] out = new char[MAX_LENGTH];
+        int n = 0;
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int square = Bitboards.square(row, col);
+                ChessPiece piece = board != null ? board.pieceAt(square) : snapshot.pieceAt(square);
+                if (piece == null || piece.getTeamColor() == ChessGame.TeamColor.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out[n++] = (char) ('0' + empty);
+                    empty = 0;
+                }
+                char letter = LETTERS[piece.getPieceType().ordinal()];
+                out[n++] = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? letter : Character.toLowerCase(letter);
+            }
+            if (empty > 0) {
+                out[n++] = (char) ('0' + empty);
+            }
+            if (row > 1) {
+                out[n++] = '/';
+            }
+        }
+        out[n++] = ' ';
+        out[n++] = turn == ChessGame.TeamColor.BLACK ? 'b' : 'w';
+        out[n++] = ' ';
+        out[n++] = '-';
+        out[n++] = ' ';
+        out[n++] = '-';
+        if (counters) {
+            out[n++] = ' ';
+            n = writeNumber(out, n, halfmoveClock);
+            out[n++] = ' ';
+            out[n++] = '1';
+        }
+        return new String(out, 0, n);
+    }
+
+    private static int writeNumber(char[] out, int n, int value) {
+        if (value >= 10) {
+            n = writeNumber(out, n, value / 10);
+        }
+        out[n++] = (char) ('0' + value % 10);
+        return n;
+    }
+
+    private static ChessPiece piece(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        char letter = Character.toUpperCase(c);
+        for (int type = 0; type < LETTERS.length; type++) {
+            if (LETTERS[type] == letter) {
+                return ChessPiece.of(color, TYPES[type]);
+            }
+        }
+        return null;
+    }
+
+    private static int skipSpaces(String text, int i) {
+        while (i < text.length() && text.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipField(String text, int i) {
+        while (i < text.length() && text.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static IllegalArgumentException bad(String fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+}
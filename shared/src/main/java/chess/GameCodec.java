@@ -0,0 +1,152 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary form of a game's state for storage, in place of Gson JSON.
+ * The board takes about 30 bytes; the position history kept for repetition
+ * adds 8 bytes per ply since the last capture or pawn move, up to 100 plies,
+ * so a stored game is at most about 830 bytes:
+ * <pre>
+ *   byte    format version (1)
+ *   byte    flags: bit 0 black to move, bit 1 game over, bit 2 wide piece codes
+ *   byte    status ordinal
+ *   long    occupancy bitboard
+ *   ...     one piece code per occupied square, lowest square first: two per
+ *           byte, low nibble first, or one per byte with the wide flag
+ *   short   halfmove clock
+ *   byte    number of history keys, then that many longs, oldest first
+ * </pre>
+ * Piece codes are {@link Bitboards#pieceIndex}. Codes for EMPTY-team pieces do
+ * not fit in a nibble, so boards holding any are written wide.
+ * <p>
+ * The first byte of a JSON object is '{', never a format version, so stored
+ * JSON can be told apart with {@link #isEncoded(byte[])}.
+ */
+public final class GameCodec {
+    public static final byte VERSION = 1;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 1 << 1;
+    private static final int WIDE_CODES = 1 << 2;
+    private static final int NIBBLE_CODES = 12;
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessGame.GameStatus[] STATUSES = ChessGame.GameStatus.values();
+
+    private GameCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        return encode(game.snapshot());
+    }
+
+    public static byte[] encode(GameSnapshot snapshot) {
+        long occupied = 0L;
+        boolean wide = false;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = snapshot.pieceAt(square);
+            if (piece != null) {
+                occupied |= Bitboards.bit(square);
+                wide |= code(piece) >= NIBBLE_CODES;
+            }
+        }
+        int pieces = Long.bitCount(occupied);
+        int history = snapshot.historyLength();
+        ByteBuffer out = ByteBuffer.allocate(3 + 8 + (wide ? pieces : (pieces + 1) / 2) + 2 + 1 + history * 8);
+
+        int flags = (snapshot.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                | (snapshot.isGameOver() ? GAME_OVER : 0)
+                | (wide ? WIDE_CODES : 0);
+        out.put(VERSION).put((byte) flags).put((byte) snapshot.getStatus().ordinal());
+        out.putLong(occupied);
+
+        int pending = -1;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int code = code(snapshot.pieceAt(Long.numberOfTrailingZeros(bits)));
+            if (wide) {
+                out.put((byte) code);
+            } else if (pending < 0) {
+                pending = code;
+            } else {
+                out.put((byte) (pending | (code << 4)));
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.put((byte) pending);
+        }
+
+        out.putShort((short) Math.min(snapshot.getHalfmoveClock(), 0xFFFF));
+        out.put((byte) history);
+        for (int i = 0; i < history; i++) {
+            out.putLong(snapshot.historyKey(i));
+        }
+        return out.array();
+    }
+
+    /**
+     * @return true if the bytes start with a known format version
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length > 0 && data[0] == VERSION;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static GameSnapshot decode(byte[] data) {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Unknown game state format");
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data, 1, data.length - 1);
+            int flags = in.get();
+            int status = in.get();
+            if (status < 0 || status >= STATUSES.length) {
+                throw new IllegalArgumentException("Bad status " + status);
+            }
+            long occupied = in.getLong();
+
+            byte[] squares = new byte[64];
+            long key = 0L;
+            boolean wide = (flags & WIDE_CODES) != 0;
+            int packed = 0;
+            int index = 0;
+            for (long bits = occupied; bits != 0; bits &= bits - 1, index++) {
+                int code;
+                if (wide) {
+                    code = in.get();
+                } else if ((index & 1) == 0) {
+                    packed = in.get();
+                    code = packed & 0xF;
+                } else {
+                    code = (packed >>> 4) & 0xF;
+                }
+                if (code < 0 || code >= COLORS.length * 6) {
+                    throw new IllegalArgumentException("Bad piece code " + code);
+                }
+                int square = Long.numberOfTrailingZeros(bits);
+                squares[square] = (byte) (code + 1);
+                key ^= Zobrist.piece(ChessPiece.byIndex(code), square);
+            }
+
+            int halfmoveClock = Short.toUnsignedInt(in.getShort());
+            long[] history = new long[Byte.toUnsignedInt(in.get())];
+            for (int i = 0; i < history.length; i++) {
+                history[i] = in.getLong();
+            }
+
+            ChessGame.TeamColor turn = (flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            return new GameSnapshot(squares, turn, STATUSES[status], (flags & GAME_OVER) != 0,
+                    key ^ Zobrist.side(turn), halfmoveClock, history);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated game state", e);
+        }
+    }
+
+    private static int code(ChessPiece piece) {
+        return Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+    }
+}
@@ -0,0 +1,99 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of a game at one moment, made with {@link ChessGame#snapshot()}.
+ * The board is packed into one byte per square, so a snapshot is small and
+ * cheap to take, and it can be handed to any number of readers (broadcasts,
+ * game lists, storage) without locking while the live game keeps moving.
+ */
+public final class GameSnapshot {
+    private final byte[] squares;
+    private final ChessGame.TeamColor teamTurn;
+    private final ChessGame.GameStatus status;
+    private final boolean gameOver;
+    private final long positionKey;
+    private final int halfmoveClock;
+    private final long[] history;
+
+    /**
+     * @param squares piece code per square index: 0 for empty, otherwise
+     *                {@link Bitboards#pieceIndex} + 1
+     * @param history keys of the positions since the last capture or pawn
+     *                move, oldest first
+     */
+    GameSnapshot(byte[] squares, ChessGame.TeamColor teamTurn, ChessGame.GameStatus status, boolean gameOver,
+                 long positionKey, int halfmoveClock, long[] history) {
+        this.squares = squares;
+        this.teamTurn = teamTurn;
+        this.status = status;
+        this.gameOver = gameOver;
+        this.positionKey = positionKey;
+        this.halfmoveClock = halfmoveClock;
+        this.history = history;
+    }
+
+    public ChessGame.TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    public ChessGame.GameStatus getStatus() {
+        return status;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return Zobrist key of the position, as {@link ChessGame#positionKey()}
+     */
+    public long positionKey() {
+        return positionKey;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the piece on a square, or null if it is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        return pieceAt(Bitboards.square(position));
+    }
+
+    /**
+     * @return a new, independent game in this position that the caller may modify
+     */
+    public ChessGame toGame() {
+        return ChessGame.fromSnapshot(this);
+    }
+
+    ChessPiece pieceAt(int square) {
+        int code = squares[square];
+        return code == 0 ? null : ChessPiece.byIndex(code - 1);
+    }
+
+    int historyLength() {
+        return history.length;
+    }
+
+    long historyKey(int index) {
+        return history[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {return true;}
+        if (o == null || getClass() != o.getClass()) {return false;}
+        GameSnapshot that = (GameSnapshot) o;
+        return teamTurn == that.teamTurn && Arrays.equals(squares, that.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positionKey);
+    }
+}
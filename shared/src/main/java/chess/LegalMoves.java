@@ -0,0 +1,157 @@
+package chess;
+
+/**
+ * Generates only legal moves, without playing each candidate and testing for
+ * check. The checking pieces and the pinned pieces are found once per
+ * position from the king square:
+ * <ul>
+ *     <li>in check from one piece, other pieces may only capture the checker or
+ *     block between it and the king; in double check only the king may move</li>
+ *     <li>a pinned piece may only move along the line through its king and itself</li>
+ *     <li>the king may go to any square not attacked once it has left its own
+ *     square, so a slider checking it along a line still covers the square behind</li>
+ * </ul>
+ * There is no castling or en passant in this project, so these rules are complete.
+ */
+final class LegalMoves {
+    private LegalMoves() {
+    }
+
+    /**
+     * Writes the legal moves of the given team's pieces on the {@code from}
+     * squares into a buffer. With a null buffer the moves are only counted.
+     *
+     * @param from bitboard of start squares to generate for; -1 for the whole team
+     * @return the new number of moves in the buffer
+     */
+    static int generate(ChessBoard board, ChessGame.TeamColor color, long from, int[] buffer, int count) {
+        return generate(board, color, from, -1L, buffer, count);
+    }
+
+    /**
+     * Same as {@link #generate(ChessBoard, ChessGame.TeamColor, long, int[], int)}
+     * for only the moves ending on a {@code to} square, e.g. the opponent's
+     * pieces for captures alone
+     */
+    static int generate(ChessBoard board, ChessGame.TeamColor color, long from, long to, int[] buffer, int count) {
+        long own = board.teamMask(color) & from;
+        long kings = board.pieceMask(color, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return pseudoLegal(board, own, to, 0L, 0, buffer, count);
+        }
+
+        int king = Long.numberOfTrailingZeros(kings);
+        ChessGame.TeamColor enemy = Bitboards.opponent(color);
+        long evasions = evasions(board, king, enemy) & to;
+        if (evasions != 0) {
+            count = pseudoLegal(board, own & ~Bitboards.bit(king), evasions, pinned(board, color, king), king,
+                    buffer, count);
+        }
+        if ((own & Bitboards.bit(king)) != 0) {
+            count = kingMoves(board, king, enemy, to, buffer, count);
+        }
+        return count;
+    }
+
+    /**
+     * Tests a single packed move for the given team without generating any
+     * others: the piece's move shape and promotion, then king safety, check
+     * evasion and pins for that one move.
+     */
+    static boolean isLegal(ChessBoard board, ChessGame.TeamColor color, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.pieceAt(from);
+        if (piece == null || piece.getTeamColor() != color || (piece.targets(board, from) & Bitboards.bit(to)) == 0) {
+            return false;
+        }
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (piece.isPromotionSquare(to) ? !ChessPiece.isPromotionType(promotion) : promotion != null) {
+            return false;
+        }
+
+        long kings = board.pieceMask(color, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return true;
+        }
+        int king = Long.numberOfTrailingZeros(kings);
+        ChessGame.TeamColor enemy = Bitboards.opponent(color);
+        if (from == king) {
+            return !board.isAttacked(to, enemy, board.occupiedMask() & ~Bitboards.bit(king));
+        }
+
+        if ((evasions(board, king, enemy) & Bitboards.bit(to)) == 0) {
+            return false;
+        }
+        return (Attacks.line(king, from) & Bitboards.bit(to)) != 0
+                || (pinned(board, color, king) & Bitboards.bit(from)) == 0;
+    }
+
+    /**
+     * Squares a piece other than the king may move to with the king on the
+     * given square: everything when not in check, the checker and the squares
+     * between it and the king in single check, nothing in double check
+     */
+    static long evasions(ChessBoard board, int king, ChessGame.TeamColor enemy) {
+        long checkers = board.attackersOf(king, enemy);
+        if (checkers == 0) {
+            return -1L;
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            return 0L;
+        }
+        return checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+    }
+
+    /**
+     * Bitboard of the given team's pieces that are the only piece between
+     * their king and an enemy slider on the same line
+     */
+    static long pinned(ChessBoard board, ChessGame.TeamColor color, int king) {
+        ChessGame.TeamColor enemy = Bitboards.opponent(color);
+        long queens = board.pieceMask(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rook(king, 0L) & (queens | board.pieceMask(enemy, ChessPiece.PieceType.ROOK)))
+                | (Attacks.bishop(king, 0L) & (queens | board.pieceMask(enemy, ChessPiece.PieceType.BISHOP)));
+        long occupied = board.occupiedMask();
+        long own = board.teamMask(color);
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(king, sniper) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    private static int pseudoLegal(ChessBoard board, long pieces, long allowed, long pinned, int king,
+                                   int[] buffer, int count) {
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long targets = (pinned & Bitboards.bit(square)) != 0 ? allowed & Attacks.line(king, square) : allowed;
+            count = board.pieceAt(square).generateMoves(board, square, targets, buffer, count);
+        }
+        return count;
+    }
+
+    private static int kingMoves(ChessBoard board, int king, ChessGame.TeamColor enemy, long to,
+                                 int[] buffer, int count) {
+        ChessPiece piece = board.pieceAt(king);
+        long withoutKing = board.occupiedMask() & ~Bitboards.bit(king);
+        long targets = piece.targets(board, king) & to;
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!board.isAttacked(target, enemy, withoutKing)) {
+                if (buffer != null) {
+                    buffer[count] = Move.encode(king, target, null);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
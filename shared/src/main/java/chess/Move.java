@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so move generation and search can work
+ * without allocating {@link ChessMove} or {@link ChessPosition} objects.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square and bits 12-14 the
+ * promotion piece (0 for none, otherwise {@link ChessPiece.PieceType} ordinal + 1).
+ * Squares are numbered (row - 1) * 8 + (column - 1), so 0 is a1 and 63 is h8.
+ */
+public final class Move {
+    /**
+     * Large enough for every legal move in any reachable position
+     */
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * Never produced by encoding, so it can mark "no move"
+     */
+    public static final int NONE = 0;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * Shared ChessMove for each packed move, filled in as moves are first seen.
+     * ChessMove is immutable with final fields, so a racing duplicate is harmless.
+     */
+    private static final ChessMove[] CHESS_MOVES = new ChessMove[1 << 15];
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion) {
+        return from | (to << 6) | ((promotion == null ? 0 : promotion.ordinal() + 1) << 12);
+    }
+
+    public static int encode(ChessMove move) {
+        return encode(square(move.getStartPosition()), square(move.getEndPosition()), move.getPromotionPiece());
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = move >>> 12;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    /**
+     * @return whether the move fits the encoding with a promotion code that
+     * names a piece type; packed moves read from files may not
+     */
+    public static boolean isWellFormed(int move) {
+        return move >= 0 && move < CHESS_MOVES.length && (move >>> 12) <= TYPES.length;
+    }
+
+    public static int square(ChessPosition position) {
+        return Bitboards.square(position);
+    }
+
+    public static ChessPosition position(int square) {
+        return Bitboards.position(square);
+    }
+
+    /**
+     * @return the shared ChessMove for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        ChessMove chessMove = CHESS_MOVES[move];
+        if (chessMove == null) {
+            chessMove = new ChessMove(position(from(move)), position(to(move)), promotion(move));
+            CHESS_MOVES[move] = chessMove;
+        }
+        return chessMove;
+    }
+}
@@ -0,0 +1,102 @@
+package chess;
+
+/**
+ * Hands out the legal moves of one team one at a time, producing each only
+ * when asked. Moves come in stages: king moves first (the usual way out of
+ * check), then captures, then quiet moves, so a caller that only needs the
+ * first legal move or a good early one rarely pays for the rest.
+ * <p>
+ * Checks and pins are worked out when the iterator is created, so the board
+ * must be in the same position whenever {@link #next()} is called. Playing a
+ * move between calls is fine as long as it is taken back first.
+ */
+public final class MoveIterator {
+    private static final int KING_MOVES = 0;
+    private static final int CAPTURES = 1;
+    private static final int QUIETS = 2;
+    private static final int DONE = 3;
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor color;
+    private final ChessGame.TeamColor enemy;
+    private final int king;
+    private final long evasions;
+    private final long pinned;
+
+    private int stage;
+    private long pieces;
+    private int from;
+    private ChessPiece piece;
+    private long targets;
+    private int to;
+    private int promotion = -1;
+
+    MoveIterator(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.color = color;
+        enemy = Bitboards.opponent(color);
+        long kings = board.pieceMask(color, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            king = -1;
+            evasions = -1L;
+            pinned = 0L;
+        } else {
+            king = Long.numberOfTrailingZeros(kings);
+            evasions = LegalMoves.evasions(board, king, enemy);
+            pinned = LegalMoves.pinned(board, color, king);
+        }
+        stage = KING_MOVES;
+        pieces = king < 0 ? 0L : Bitboards.bit(king);
+    }
+
+    /**
+     * @return the next legal move as a packed {@link Move} int, or
+     * {@link Move#NONE} once every move has been returned
+     */
+    public int next() {
+        while (true) {
+            if (promotion >= 0) {
+                int move = Move.encode(from, to, ChessPiece.PROMOTION_TYPES[promotion]);
+                promotion = promotion + 1 < ChessPiece.PROMOTION_TYPES.length ? promotion + 1 : -1;
+                return move;
+            }
+            if (targets != 0) {
+                to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (stage == KING_MOVES
+                        && board.isAttacked(to, enemy, board.occupiedMask() & ~Bitboards.bit(king))) {
+                    continue;
+                }
+                if (piece.isPromotionSquare(to)) {
+                    promotion = 0;
+                    continue;
+                }
+                return Move.encode(from, to, null);
+            }
+            if (pieces != 0) {
+                from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                piece = board.pieceAt(from);
+                targets = stageTargets();
+                continue;
+            }
+            if (stage == DONE) {
+                return Move.NONE;
+            }
+            stage++;
+            pieces = stage == DONE || evasions == 0 ? 0L
+                    : board.teamMask(color) & ~(king < 0 ? 0L : Bitboards.bit(king));
+        }
+    }
+
+    private long stageTargets() {
+        long targets = piece.targets(board, from);
+        if (stage == KING_MOVES) {
+            return targets;
+        }
+        long allowed = (pinned & Bitboards.bit(from)) != 0 ? evasions & Attacks.line(king, from) : evasions;
+        long occupied = board.occupiedMask();
+        long enemies = occupied & ~board.teamMask(color);
+        return targets & allowed & (stage == CAPTURES ? enemies : ~occupied);
+    }
+}
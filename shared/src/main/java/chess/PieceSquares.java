@@ -0,0 +1,162 @@
+package chess;
+
+/**
+ * Material and piece-square scores, kept by {@link ChessBoard} as running
+ * totals so a position can be scored without visiting its squares.
+ * <p>
+ * Every piece kind has a middlegame and an endgame score per square,
+ * positive for White and negative for Black. A position's score blends the
+ * two totals by {@link #MAX_PHASE phase}: the weight of the queens, rooks
+ * and minor pieces still on the board. Tables are laid out from White's side
+ * with square 0 = a1; Black's pieces read them mirrored top to bottom.
+ */
+final class PieceSquares {
+    /**
+     * Phase with every non-pawn piece on the board; more than this (after
+     * promotions) counts as a full middlegame
+     */
+    static final int MAX_PHASE = 24;
+
+    /**
+     * Centipawn values in {@link ChessPiece.PieceType} order: king, queen,
+     * bishop, knight, rook, pawn
+     */
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_VALUES = {0, 950, 340, 300, 530, 130};
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+
+    private static final int[] KING_MIDDLEGAME = {
+             20,  30,  10,   0,   0,  10,  30,  20,
+             20,  20,   0,   0,   0,   0,  20,  20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -30, -30, -30, -30, -30, -30, -50,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -50, -40, -30, -20, -20, -30, -40, -50
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK = {
+              0,   0,   0,   5,   5,   0,   0,   0,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              5,  10,  10,  10,  10,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] PAWN_MIDDLEGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,   5,  10,  25,  25,  10,   5,   5,
+             10,  10,  20,  30,  30,  20,  10,  10,
+             50,  50,  50,  50,  50,  50,  50,  50,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] PAWN_ENDGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+            -10, -10, -10, -10, -10, -10, -10, -10,
+             -5,  -5,  -5,  -5,  -5,  -5,  -5,  -5,
+              5,   5,   5,   5,   5,   5,   5,   5,
+             20,  20,  20,  20,  20,  20,  20,  20,
+             40,  40,  40,  40,  40,  40,  40,  40,
+             80,  80,  80,  80,  80,  80,  80,  80,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[][] MIDDLEGAME_TABLES = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+    private static final int[][] ENDGAME_TABLES = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+
+    private static final int KINDS = ChessGame.TeamColor.values().length * 6;
+    private static final int[][] MIDDLEGAME = new int[KINDS][64];
+    private static final int[][] ENDGAME = new int[KINDS][64];
+    private static final int[] MATERIAL = new int[KINDS];
+    private static final int[] PHASE = new int[KINDS];
+
+    static {
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            int t = type.ordinal();
+            int white = Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, type);
+            int black = Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, type);
+            for (int square = 0; square < 64; square++) {
+                MIDDLEGAME[white][square] = VALUES[t] + MIDDLEGAME_TABLES[t][square];
+                ENDGAME[white][square] = ENDGAME_VALUES[t] + ENDGAME_TABLES[t][square];
+                MIDDLEGAME[black][square] = -(VALUES[t] + MIDDLEGAME_TABLES[t][square ^ 56]);
+                ENDGAME[black][square] = -(ENDGAME_VALUES[t] + ENDGAME_TABLES[t][square ^ 56]);
+            }
+            MATERIAL[white] = VALUES[t];
+            MATERIAL[black] = -VALUES[t];
+            PHASE[white] = PHASE_WEIGHTS[t];
+            PHASE[black] = PHASE_WEIGHTS[t];
+        }
+    }
+
+    private PieceSquares() {
+    }
+
+    static int middlegame(int kind, int square) {
+        return MIDDLEGAME[kind][square];
+    }
+
+    static int endgame(int kind, int square) {
+        return ENDGAME[kind][square];
+    }
+
+    static int material(int kind) {
+        return MATERIAL[kind];
+    }
+
+    static int phase(int kind) {
+        return PHASE[kind];
+    }
+
+    /**
+     * @return the two totals blended by phase, in centipawns from White's side
+     */
+    static int blend(int middlegame, int endgame, int phase) {
+        int weight = Math.min(phase, MAX_PHASE);
+        return (middlegame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,94 @@
+package chess;
+
+/**
+ * Reads moves in Standard Algebraic Notation (SAN), as found in PGN files,
+ * by matching them against the legal moves of a game.
+ * <p>
+ * Castling and en passant do not exist in this project, so SAN for them is
+ * rejected like any other move that is not legal here.
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "KQBNR";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private San() {
+    }
+
+    /**
+     * @return the legal move the SAN names, as a packed {@link Move}
+     * @throws IllegalArgumentException if the text is not SAN or does not name
+     *                                  exactly one legal move
+     */
+    public static int parse(ChessGame game, String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (san.startsWith("O-O") || san.startsWith("0-0")) {
+            throw bad(san, "castling is not supported");
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (end > 0 && PIECE_LETTERS.indexOf(san.charAt(end - 1)) > 0) {
+            promotion = TYPES[PIECE_LETTERS.indexOf(san.charAt(end - 1))];
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end < 2) {
+            throw bad(san, "no destination square");
+        }
+        int toFile = san.charAt(end - 2) - 'a';
+        int toRank = san.charAt(end - 1) - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            throw bad(san, "no destination square");
+        }
+        int to = toRank * 8 + toFile;
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (end > 2 && PIECE_LETTERS.indexOf(san.charAt(0)) >= 0) {
+            type = TYPES[PIECE_LETTERS.indexOf(san.charAt(0))];
+            start = 1;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != '-') {
+                throw bad(san, "unexpected '" + c + "'");
+            }
+        }
+
+        int[] moves = new int[Move.MAX_MOVES];
+        int count = game.generateLegalMoves(moves);
+        int found = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotion(move) != promotion
+                    || (fromFile >= 0 && (from & 7) != fromFile)
+                    || (fromRank >= 0 && (from >>> 3) != fromRank)
+                    || game.getBoard().pieceAt(from).getPieceType() != type) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                throw bad(san, "ambiguous");
+            }
+            found = move;
+        }
+        if (found == Move.NONE) {
+            throw bad(san, "not a legal move");
+        }
+        return found;
+    }
+
+    private static IllegalArgumentException bad(String san, String reason) {
+        return new IllegalArgumentException("Invalid SAN (" + reason + "): " + san);
+    }
+}
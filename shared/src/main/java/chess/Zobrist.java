@@ -0,0 +1,40 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist position hashing. A position's key is the XOR of the
+ * key for every (piece kind, square) pair on the board, plus {@link #SIDE} when
+ * black is to move, so moving a piece only takes a couple of XORs to update.
+ * <p>
+ * Keys come from a fixed seed so they are identical across JVMs and can be
+ * stored or compared between client and server.
+ */
+final class Zobrist {
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    private static final long[][] PIECE_SQUARE =
+            new long[ChessGame.TeamColor.values().length * 6][64];
+
+    static final long SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(ChessPiece piece, int square) {
+        return PIECE_SQUARE[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())][square];
+    }
+
+    static long side(ChessGame.TeamColor toMove) {
+        return toMove == ChessGame.TeamColor.BLACK ? SIDE : 0L;
+    }
+}
@@ -0,0 +1,216 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.San;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} file from PGN games.
+ * <p>
+ * Each move in the first plies of every game adds to its weight for the
+ * position it was played from: 2 if the side that played it went on to win,
+ * 1 for a draw or an unknown result, 0 for a loss. Moves that only ever lost
+ * are left out. A game is cut short at the first move that cannot be played
+ * here, such as castling or en passant.
+ * <p>
+ * Usage: {@code java chess.book.BookBuilder <out> <plies> <pgn>...}
+ */
+public final class BookBuilder {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPlies;
+    private final Map<Long, Map<Integer, Integer>> weights = new HashMap<>();
+    private int games;
+
+    /**
+     * @param maxPlies plies from the start of each game to take into the book
+     */
+    public BookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds every game in PGN text. Headers other than Result, comments,
+     * variations and annotations are skipped.
+     */
+    public void addPgn(String pgn) {
+        List<String> moves = new ArrayList<>();
+        String result = "*";
+        int length = pgn.length();
+        int i = 0;
+        while (i < length) {
+            char c = pgn.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '[') {
+                if (!moves.isEmpty()) {
+                    addGame(moves, result);
+                    moves.clear();
+                    result = "*";
+                }
+                int close = indexOrEnd(pgn, ']', i);
+                String tag = pgn.substring(i + 1, close).trim();
+                if (tag.startsWith("Result")) {
+                    int quote = tag.indexOf('"');
+                    result = quote < 0 ? "*" : tag.substring(quote + 1, Math.max(quote + 1, tag.lastIndexOf('"')));
+                }
+                i = close + 1;
+            } else if (c == '{') {
+                i = indexOrEnd(pgn, '}', i) + 1;
+            } else if (c == ';') {
+                i = indexOrEnd(pgn, '\n', i) + 1;
+            } else if (c == '(') {
+                i = skipVariation(pgn, i);
+            } else {
+                int end = i;
+                while (end < length && !Character.isWhitespace(pgn.charAt(end))
+                        && "{(;[".indexOf(pgn.charAt(end)) < 0) {
+                    end++;
+                }
+                String token = pgn.substring(i, end);
+                i = end;
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+                    addGame(moves, token);
+                    moves.clear();
+                    result = "*";
+                } else if (!token.startsWith("$")) {
+                    String san = stripMoveNumber(token);
+                    if (!san.isEmpty()) {
+                        moves.add(san);
+                    }
+                }
+            }
+        }
+        if (!moves.isEmpty()) {
+            addGame(moves, result);
+        }
+    }
+
+    /**
+     * @return games added so far
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * Writes the book, sorted for {@link OpeningBook}'s binary search
+     *
+     * @return number of entries written
+     */
+    public int write(Path file) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Integer>> position : weights.entrySet()) {
+            for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                if (move.getValue() > 0) {
+                    entries.add(new long[]{position.getKey(), move.getKey(), Math.min(move.getValue(), MAX_WEIGHT)});
+                }
+            }
+        }
+        entries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(entries.size());
+            out.writeLong(0L);
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+                out.writeInt(0);
+            }
+        }
+        return entries.size();
+    }
+
+    private void addGame(List<String> moves, String result) {
+        games++;
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < moves.size() && ply < maxPlies; ply++) {
+            int move;
+            try {
+                move = San.parse(game, moves.get(ply));
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+            int weight = weight(result, game.getTeamTurn());
+            weights.computeIfAbsent(game.positionKey(), key -> new HashMap<>())
+                    .merge(move, weight, Integer::sum);
+            try {
+                game.makeMove(Move.toChessMove(move));
+            } catch (InvalidMoveException e) {
+                return;
+            }
+        }
+    }
+
+    private static int weight(String result, ChessGame.TeamColor mover) {
+        return switch (result) {
+            case "1-0" -> mover == ChessGame.TeamColor.WHITE ? 2 : 0;
+            case "0-1" -> mover == ChessGame.TeamColor.BLACK ? 2 : 0;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Turns "12.e4", "12..." or "12...e5" into the SAN after the number
+     */
+    private static String stripMoveNumber(String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            return token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+
+    private static int skipVariation(String pgn, int i) {
+        int depth = 0;
+        for (; i < pgn.length(); i++) {
+            char c = pgn.charAt(i);
+            if (c == '{') {
+                i = indexOrEnd(pgn, '}', i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return i;
+    }
+
+    private static int indexOrEnd(String text, char c, int from) {
+        int index = text.indexOf(c, from + 1);
+        return index < 0 ? text.length() : index;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java chess.book.BookBuilder <out> <plies> <pgn>...");
+            return;
+        }
+        BookBuilder builder = new BookBuilder(Integer.parseInt(args[1]));
+        for (int i = 2; i < args.length; i++) {
+            builder.addPgn(Files.readString(Path.of(args[i]), StandardCharsets.ISO_8859_1));
+        }
+        int entries = builder.write(Path.of(args[0]));
+        System.out.printf("%,d games, %,d book entries%n", builder.games(), entries);
+    }
+}
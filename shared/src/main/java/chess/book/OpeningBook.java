@@ -0,0 +1,153 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only opening book memory-mapped from a file written by
+ * {@link BookBuilder}. Lookups binary-search the mapped file directly, so
+ * opening a book costs no heap and any number of threads may probe it.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ *   int     magic "CBK1"
+ *   int     entry count
+ *   long    reserved (0)
+ *   entries of 16 bytes, sorted by key then by weight, highest first:
+ *     long  position key ({@link ChessGame#positionKey()})
+ *     short move ({@link Move} encoding)
+ *     short weight, unsigned
+ *     int   reserved (0)
+ * </pre>
+ * Position keys come from fixed Zobrist seeds, so a book built on one
+ * machine can be read on any other.
+ */
+public final class OpeningBook {
+    static final int MAGIC = 0x43424B31;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mapped.order(ByteOrder.BIG_ENDIAN);
+            int count = mapped.getInt(4);
+            if (mapped.getInt(0) != MAGIC || count < 0 || HEADER_BYTES + (long) count * ENTRY_BYTES != length) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            return new OpeningBook(mapped, count);
+        }
+    }
+
+    /**
+     * @return number of (position, move) entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the book's moves for the game's position, highest weight first;
+     * empty if the position is not in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        List<BookMove> moves = new ArrayList<>();
+        long key = game.positionKey();
+        for (int i = firstEntry(key); i < size && keyAt(i) == key; i++) {
+            int move = moveAt(i);
+            if (Move.isWellFormed(move) && game.isLegal(Move.toChessMove(move))) {
+                moves.add(new BookMove(Move.toChessMove(move), weightAt(i)));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves for the position at random, in proportion
+     * to their weights
+     *
+     * @return a legal move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        long key = game.positionKey();
+        int first = firstEntry(key);
+        int total = 0;
+        int last = first;
+        for (; last < size && keyAt(last) == key; last++) {
+            total += weightAt(last);
+        }
+        if (total == 0) {
+            return null;
+        }
+        int target = random.nextInt(total);
+        for (int i = first; i < last; i++) {
+            target -= weightAt(i);
+            if (target < 0) {
+                // A corrupt entry is no book move rather than a crash
+                if (!Move.isWellFormed(moveAt(i))) {
+                    return null;
+                }
+                ChessMove move = Move.toChessMove(moveAt(i));
+                // Keys are 64-bit hashes; never trust a colliding entry blindly
+                return game.isLegal(move) ? move : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return index of the first entry with the key, or of the first entry
+     * after where it would be
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    private int moveAt(int index) {
+        return entries.getShort(HEADER_BYTES + index * ENTRY_BYTES + 8) & 0x7FFF;
+    }
+
+    private int weightAt(int index) {
+        return Short.toUnsignedInt(entries.getShort(HEADER_BYTES + index * ENTRY_BYTES + 10));
+    }
+}
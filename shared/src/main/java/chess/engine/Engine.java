@@ -0,0 +1,470 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Fen;
+import chess.Move;
+import chess.tablebase.Tablebases;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Alpha-beta searcher built on ChessGame's own legal move generation, so it
+ * only ever plays moves the server would accept.
+ * <p>
+ * Each search deepens one ply at a time. Within an iteration moves are tried
+ * in the order: previous best line, captures by most valuable victim and
+ * least valuable attacker, killer moves, then quiet moves by history score.
+ * Leaf positions are settled with a captures-only quiescence search.
+ * <p>
+ * Given a {@link TranspositionTable}, results are stored by position and
+ * reused when the same position is reached again, by this search or by any
+ * other engine sharing the table; see {@link ParallelSearch}. Given
+ * {@link Tablebases}, positions they cover are scored exactly instead of
+ * searched.
+ * <p>
+ * An Engine reuses its buffers between searches and is not thread-safe; use
+ * one per thread. The game passed in is never modified.
+ * <p>
+ * Usage: {@code java chess.engine.Engine <depth> [millis] [fen]}
+ */
+public final class Engine {
+    /**
+     * Score of being checkmated at the root; mate in n plies scores MATE - n
+     */
+    public static final int MATE = 30_000;
+    private static final int INFINITY = 32_000;
+    private static final int MAX_PLY = SearchLimits.MAX_DEPTH * 2;
+
+    /**
+     * How often, in nodes, the clock and node budget are checked
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int PV_BONUS = 1 << 24;
+    private static final int HASH_MOVE_BONUS = PV_BONUS - 1;
+    private static final int CAPTURE_BONUS = 1 << 22;
+    private static final int PROMOTION_BONUS = 1 << 21;
+    private static final int KILLER_BONUS = 1 << 20;
+
+    private final int[][] moves = new int[MAX_PLY + 1][Move.MAX_MOVES];
+    private final int[][] orderScores = new int[MAX_PLY + 1][Move.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[] history = new int[64 * 64];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+
+    /**
+     * Lazy-SMP depth skipping for helper threads, as (size, phase) pairs: helper
+     * h skips depth d when ((d + phase) / size) is odd, so helpers spread over
+     * different depths instead of repeating the main thread's work
+     */
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private static final AtomicBoolean NEVER_STOP = new AtomicBoolean();
+
+    private final TranspositionTable table;
+    private final int helper;
+    private Tablebases tablebases;
+
+    private ChessGame game;
+    private AtomicBoolean stopSignal;
+    private long tableProbes;
+    private long tableHits;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+    private int[] rootLine = new int[0];
+
+    /**
+     * Score of the root move now at the head of pv[0], set as each root move
+     * finishes so a search stopped partway through an iteration still knows it
+     */
+    private int rootScore;
+
+    public Engine() {
+        this(null, 0);
+    }
+
+    /**
+     * @param table table to read and store results in, possibly shared with
+     *              other engines; null for none
+     */
+    public Engine(TranspositionTable table) {
+        this(table, 0);
+    }
+
+    /**
+     * @param helper 0 for a main search, or a helper's number from 1 to pick
+     *               which iterations it skips
+     */
+    Engine(TranspositionTable table, int helper) {
+        this.table = table;
+        this.helper = helper;
+    }
+
+    /**
+     * Sets the endgame tables probed below the root; null for none
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Searches the game's position within the given limits
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        if (table != null) {
+            table.newSearch();
+        }
+        return search(position, limits, NEVER_STOP);
+    }
+
+    /**
+     * Searches until a limit is reached or another thread sets stop
+     */
+    SearchResult search(ChessGame position, SearchLimits limits, AtomicBoolean stop) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        game = position.copy();
+        stopSignal = stop;
+        nodes = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        nodeLimit = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = limits.maxMillis() > 0 ? start + limits.maxMillis() * 1_000_000L : Long.MAX_VALUE;
+        stopped = false;
+        rootLine = new int[0];
+        clearTables();
+
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= limits.maxDepth(); depth++) {
+            if (skipsDepth(depth)) {
+                continue;
+            }
+            int score = alphaBeta(depth, -INFINITY, INFINITY, 0);
+            if (stopped) {
+                // The previous best is searched first, so a partial iteration
+                // that has already replaced it found something at least as good
+                if (pvLength[0] > 0 && (rootLine.length == 0 || pv[0][0] != rootLine[0])) {
+                    rootLine = copyLine();
+                    bestScore = rootScore;
+                }
+                break;
+            }
+            rootLine = copyLine();
+            bestScore = score;
+            completedDepth = depth;
+            if (rootLine.length == 0 || Math.abs(score) >= MATE - depth) {
+                break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        List<ChessMove> line = new ArrayList<>(rootLine.length);
+        for (int move : rootLine) {
+            line.add(Move.toChessMove(move));
+        }
+        game = null;
+        stopSignal = null;
+        return new SearchResult(line.isEmpty() ? null : line.get(0), bestScore, completedDepth, line, nodes,
+                elapsed, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore, tableProbes, tableHits);
+    }
+
+    private boolean skipsDepth(int depth) {
+        if (helper == 0 || depth == 1) {
+            return false;
+        }
+        int i = (helper - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        if (ply > 0 && tablebases != null && game.pieceCount() <= 3) {
+            int result = tablebases.probe(game);
+            if (result != Tablebases.UNKNOWN) {
+                if (result == 0) {
+                    return 0;
+                }
+                int mateAt = ply + Tablebases.pliesToMate(result);
+                return result > 0 ? MATE - mateAt : -MATE + mateAt;
+            }
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = pathKeys[ply];
+        int hashMove = Move.NONE;
+        if (table != null) {
+            tableProbes++;
+            long entry = table.probe(key);
+            if (entry != 0) {
+                tableHits++;
+                hashMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        int[] buffer = moves[ply];
+        int count = game.generateLegalMoves(buffer);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(buffer, count, ply, true, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(buffer, count, i, ply);
+            boolean quiet = !isCapture(move);
+            game.doMove(move);
+            pathKeys[ply + 1] = game.positionKey();
+            int score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updateLine(ply, move);
+                    if (ply == 0) {
+                        rootScore = score;
+                    }
+                }
+            }
+            if (score >= beta) {
+                if (quiet) {
+                    rememberCutoff(move, depth, ply);
+                }
+                break;
+            }
+        }
+        if (table != null) {
+            int bound = best >= beta ? TranspositionTable.LOWER
+                    : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(key, bestMove, toTable(best, ply), depth, bound);
+        }
+        return best;
+    }
+
+    /**
+     * Mate scores are stored relative to the position, not the root, so they
+     * stay correct when the position is reached at another ply
+     */
+    private static int toTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score + ply : score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score - ply : score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (countNode()) {
+            return 0;
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int[] buffer = moves[Math.min(ply, MAX_PLY)];
+        int count;
+        int best;
+        if (inCheck) {
+            count = game.generateLegalMoves(buffer);
+            if (count == 0) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            best = Evaluation.evaluate(game);
+            if (best >= beta || ply >= MAX_PLY) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            count = game.generateLegalCaptures(buffer);
+        }
+        scoreMoves(buffer, count, Math.min(ply, MAX_PLY), false, Move.NONE);
+
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(buffer, count, i, Math.min(ply, MAX_PLY));
+            game.doMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updateLine(ply, move);
+                }
+            }
+            if (score >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks the budget
+     *
+     * @return true if the search must stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0
+                && (nodes >= nodeLimit || System.nanoTime() >= deadline || stopSignal.get())) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Draws a position that already occurred earlier in the line being searched
+     */
+    private boolean isRepetition(int ply) {
+        long key = pathKeys[ply];
+        for (int back = ply - 2; back >= 0; back -= 2) {
+            if (pathKeys[back] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scoreMoves(int[] buffer, int count, int ply, boolean useHistory, int hashMove) {
+        int[] scores = orderScores[ply];
+        int pvMove = ply < rootLine.length ? rootLine[ply] : Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            int score;
+            ChessPiece victim = game.getBoard().getPiece(Move.position(Move.to(move)));
+            if (move == pvMove) {
+                score = PV_BONUS;
+            } else if (move == hashMove) {
+                score = HASH_MOVE_BONUS;
+            } else if (victim != null) {
+                ChessPiece attacker = game.getBoard().getPiece(Move.position(Move.from(move)));
+                score = CAPTURE_BONUS + victim.getPieceType().value() * 8
+                        - attacker.getPieceType().value() / 8;
+            } else if (Move.promotion(move) == ChessPiece.PieceType.QUEEN) {
+                score = PROMOTION_BONUS;
+            } else if (move == killers[ply][0] || move == killers[ply][1]) {
+                score = KILLER_BONUS + (move == killers[ply][0] ? 1 : 0);
+            } else {
+                score = useHistory ? history[Move.from(move) * 64 + Move.to(move)] : 0;
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Moves the best-scored remaining move into slot i and returns it
+     */
+    private int pickNext(int[] buffer, int count, int i, int ply) {
+        int[] scores = orderScores[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = buffer[best];
+        buffer[best] = buffer[i];
+        buffer[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private boolean isCapture(int move) {
+        return game.getBoard().getPiece(Move.position(Move.to(move))) != null;
+    }
+
+    private void rememberCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = Move.from(move) * 64 + Move.to(move);
+        history[index] = Math.min(history[index] + depth * depth, KILLER_BONUS - 1);
+    }
+
+    private void updateLine(int ply, int move) {
+        pv[ply][0] = move;
+        int childLength = ply + 1 <= MAX_PLY ? pvLength[ply + 1] : 0;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, Math.min(childLength, MAX_PLY - 1));
+        pvLength[ply] = Math.min(childLength, MAX_PLY - 1) + 1;
+    }
+
+    private int[] copyLine() {
+        int[] line = new int[pvLength[0]];
+        System.arraycopy(pv[0], 0, line, 0, line.length);
+        return line;
+    }
+
+    private void clearTables() {
+        for (int[] slot : killers) {
+            slot[0] = Move.NONE;
+            slot[1] = Move.NONE;
+        }
+        java.util.Arrays.fill(history, 0);
+        pathKeys[0] = game.positionKey();
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            return hotspot.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        String fen = args.length > 2 ? String.join(" ", java.util.Arrays.copyOfRange(args, 2, args.length)) : Fen.START;
+
+        ChessGame game = Fen.parse(fen);
+        Engine engine = new Engine();
+        for (int d = 1; d <= depth; d++) {
+            System.out.println(engine.search(game, new SearchLimits(d, 0, millis)));
+        }
+    }
+}
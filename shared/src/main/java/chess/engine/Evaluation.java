@@ -0,0 +1,22 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Static evaluation: material plus a piece-square bonus for each piece,
+ * tapered between middlegame and endgame tables. The board keeps the score
+ * up to date as pieces move (see {@link ChessGame#positionScore()}), so
+ * evaluating a position does not visit its squares.
+ */
+public final class Evaluation {
+    private Evaluation() {
+    }
+
+    /**
+     * @return the position's score in centipawns for the team whose turn it is
+     */
+    public static int evaluate(ChessGame game) {
+        int white = game.positionScore();
+        return game.getTeamTurn() == ChessGame.TeamColor.BLACK ? -white : white;
+    }
+}
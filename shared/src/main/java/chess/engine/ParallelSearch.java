@@ -0,0 +1,115 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy-SMP search: the calling thread runs the main search while helper
+ * threads search the same position, all sharing one transposition table.
+ * Helpers skip some iterations so they work ahead of the main search, and
+ * what they store lets it cut off sooner. The main thread's result is the
+ * answer; helpers stop when it finishes.
+ * <p>
+ * Searches on one ParallelSearch run one at a time. Close it to stop the
+ * helper threads.
+ * <p>
+ * Usage: {@code java chess.engine.ParallelSearch <threads> <depth> [megabytes] [fen]}
+ */
+public final class ParallelSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final Engine[] engines;
+    private final ExecutorService helpers;
+
+    /**
+     * @param threads         searching threads including the caller's
+     * @param tableMegabytes  size of the shared transposition table
+     */
+    public ParallelSearch(int threads, int tableMegabytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        table = new TranspositionTable(tableMegabytes);
+        engines = new Engine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new Engine(table, i);
+        }
+        AtomicInteger helperNumber = new AtomicInteger(1);
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "search-helper-" + helperNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return engines.length;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Searches with all threads. The limits bound the main search; helpers
+     * search until it is done.
+     */
+    public synchronized ParallelSearchResult search(ChessGame game, SearchLimits limits) {
+        long start = System.nanoTime();
+        table.newSearch();
+        AtomicBoolean stop = new AtomicBoolean();
+        SearchLimits helperLimits = new SearchLimits(limits.maxDepth(), 0, limits.maxMillis());
+
+        List<Future<SearchResult>> running = new ArrayList<>(engines.length - 1);
+        for (int i = 1; i < engines.length; i++) {
+            Engine helper = engines[i];
+            running.add(helpers.submit(() -> helper.search(game, helperLimits, stop)));
+        }
+
+        List<SearchResult> results = new ArrayList<>(engines.length);
+        SearchResult main;
+        try {
+            main = engines[0].search(game, limits, stop);
+        } finally {
+            stop.set(true);
+        }
+        results.add(main);
+        for (Future<SearchResult> helper : running) {
+            try {
+                results.add(helper.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for search helpers", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new ParallelSearchResult(main, List.copyOf(results), System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int megabytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        String fen = args.length > 3 ? String.join(" ", java.util.Arrays.copyOfRange(args, 3, args.length)) : Fen.START;
+
+        try (ParallelSearch search = new ParallelSearch(threads, megabytes)) {
+            System.out.println(search.search(Fen.parse(fen), SearchLimits.depth(depth)));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package chess.engine;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link ParallelSearch}
+ *
+ * @param best         the main thread's result
+ * @param threads      every thread's result, main thread first, each with its
+ *                     own node count and table hit rate
+ * @param elapsedNanos wall-clock time for the whole search
+ */
+public record ParallelSearchResult(SearchResult best, List<SearchResult> threads, long elapsedNanos) {
+
+    public long totalNodes() {
+        long total = 0;
+        for (SearchResult thread : threads) {
+            total += thread.nodes();
+        }
+        return total;
+    }
+
+    public long nodesPerSecond() {
+        return totalNodes() * 1_000_000_000L / Math.max(1, elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format("%d threads  nodes %,d  %,d nodes/s  %s%n",
+                threads.size(), totalNodes(), nodesPerSecond(), best));
+        for (int i = 0; i < threads.size(); i++) {
+            SearchResult thread = threads.get(i);
+            out.append(String.format("  thread %d  depth %d  nodes %,d  table hits %.1f%%%n",
+                    i, thread.depth(), thread.nodes(), thread.tableHitRate() * 100));
+        }
+        return out.toString();
+    }
+}
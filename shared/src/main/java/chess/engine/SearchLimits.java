@@ -0,0 +1,31 @@
+package chess.engine;
+
+/**
+ * Budget for one search. The search stops at whichever limit it reaches first
+ * and returns the best move from the deepest iteration it got through.
+ *
+ * @param maxDepth  deepest iteration to start, in plies
+ * @param maxNodes  nodes to visit before stopping; 0 for no limit
+ * @param maxMillis wall-clock time before stopping; 0 for no limit
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxMillis) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("maxDepth must be between 1 and " + MAX_DEPTH);
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, 0);
+    }
+
+    public static SearchLimits millis(long millis) {
+        return new SearchLimits(MAX_DEPTH, 0, millis);
+    }
+}
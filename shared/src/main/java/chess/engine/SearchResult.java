@@ -0,0 +1,45 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Outcome of a search, with its cost
+ *
+ * @param bestMove       best move found, or null if the side to move has none
+ * @param score          centipawns from the side to move's point of view; mates
+ *                       are scored near {@link Engine#MATE}
+ * @param depth          deepest iteration completed
+ * @param principalVariation expected line of play starting with bestMove
+ * @param nodes          positions visited, including quiescence
+ * @param elapsedNanos   wall-clock time taken
+ * @param allocatedBytes heap allocated by the searching thread, or -1 if the
+ *                       JVM cannot report it
+ * @param tableProbes    transposition table lookups; 0 without a table
+ * @param tableHits      lookups that found an entry for the position
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, List<ChessMove> principalVariation,
+                           long nodes, long elapsedNanos, long allocatedBytes, long tableProbes, long tableHits) {
+
+    public long nodesPerSecond() {
+        return nodes * 1_000_000_000L / Math.max(1, elapsedNanos);
+    }
+
+    public double tableHitRate() {
+        return tableProbes == 0 ? 0.0 : (double) tableHits / tableProbes;
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Engine.MATE - SearchLimits.MAX_DEPTH * 2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth %d  score %d  nodes %,d  %,d nodes/s  %,d bytes  table hits %.1f%%  pv %s",
+                depth, score, nodes, nodesPerSecond(), allocatedBytes, tableHitRate() * 100, principalVariation);
+    }
+}
@@ -0,0 +1,137 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of search results keyed by position, shared without locks
+ * by any number of searching threads.
+ * <p>
+ * Each entry is two longs: the position key XORed with the data, then the
+ * data. Threads read and write the two words with plain array accesses, so a
+ * reader can see half of one write and half of another; the XOR check turns
+ * any such mix into a miss rather than a wrong answer. Entries sit in buckets
+ * of two: the first keeps the deepest result, the second always takes the
+ * newest.
+ * <pre>
+ *   data bits  0-15  move ({@link chess.Move} encoding)
+ *             16-31  score (signed)
+ *             32-39  depth
+ *             40-41  bound: 1 upper, 2 lower, 3 exact; 0 marks an empty slot
+ *             42-49  search generation
+ * </pre>
+ */
+public final class TranspositionTable {
+    static final int UPPER = 1;
+    static final int LOWER = 2;
+    static final int EXACT = 3;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+
+    private final long[] slots;
+    private final long bucketMask;
+    private int generation;
+
+    /**
+     * @param megabytes memory to preallocate; rounded down to a power of two buckets
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        if (buckets * BUCKET_LONGS > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Table size too large: " + megabytes + " MB");
+        }
+        slots = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return number of entries the table holds
+     */
+    public long capacity() {
+        return slots.length / ENTRY_LONGS;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        generation = 0;
+    }
+
+    /**
+     * Marks the start of a new search so entries from earlier ones are
+     * replaced first. Call once per search, not once per thread.
+     */
+    void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * @return the entry's data for the key, or 0 if there is none
+     */
+    long probe(long key) {
+        int bucket = (int) (key & bucketMask) * BUCKET_LONGS;
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = slots[i + 1];
+            if ((slots[i] ^ data) == key && bound(data) != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(depth, 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) generation << 42);
+        int bucket = (int) (key & bucketMask) * BUCKET_LONGS;
+
+        long deepest = slots[bucket + 1];
+        int slot = bucket + ENTRY_LONGS;
+        if ((slots[bucket] ^ deepest) == key || bound(deepest) == 0
+                || generation(deepest) != generation || depth(deepest) <= depth) {
+            slot = bucket;
+        }
+        slots[slot] = key ^ data;
+        slots[slot + 1] = data;
+    }
+
+    /**
+     * @return permille of sampled entries written by the current search
+     */
+    public int hashfull() {
+        int sample = (int) Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = slots[i * ENTRY_LONGS + 1];
+            if (bound(data) != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 42) & 0xFF;
+    }
+}
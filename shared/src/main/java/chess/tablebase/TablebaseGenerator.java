@@ -0,0 +1,285 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Builds {@link Tablebases} files by retrograde analysis over every placement
+ * of the three pieces, using ChessGame's own move generation so the tables
+ * agree with the server's rules.
+ * <p>
+ * Mates are found first, then each pass n marks positions won in n plies
+ * (some move reaches a position lost in n - 1) or lost in n plies (every move
+ * reaches a position won in at most n - 1, at least one in exactly n - 1).
+ * Positions still open when a pass changes nothing are draws. Moves that
+ * leave the table, by capture or promotion, take their result from the
+ * smaller table they reach, so pawn tables are built after queen and rook.
+ * Each pass is split across the threads of a private ForkJoinPool.
+ * <p>
+ * Usage: {@code java chess.tablebase.TablebaseGenerator <dir> [threads]}
+ */
+public final class TablebaseGenerator {
+    /**
+     * Tables worth storing, in the order they must be built
+     */
+    public static final ChessPiece.PieceType[] SETS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN
+    };
+
+    private static final int MAX_ENTRY = 0xFF;
+
+    private final ForkJoinPool pool;
+    private final Map<ChessPiece.PieceType, byte[]> built = new EnumMap<>(ChessPiece.PieceType.class);
+
+    public TablebaseGenerator(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Builds every table in {@link #SETS} into the directory
+     */
+    public void generateAll(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (ChessPiece.PieceType type : SETS) {
+            generate(type, directory.resolve(Tablebases.fileName(type)));
+        }
+    }
+
+    /**
+     * Builds one table and writes it. Tables that promotions lead to must
+     * have been generated by this generator first.
+     *
+     * @return size of the file written, in bytes
+     */
+    public long generate(ChessPiece.PieceType type, Path file) throws IOException {
+        boolean[] valid = new boolean[Tablebases.ENTRIES];
+        byte[] entries = new byte[Tablebases.ENTRIES];
+        int[][] children = new int[Tablebases.ENTRIES][];
+
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        parallel(Tablebases.ENTRIES, index -> workers.get().expand(type, index, valid, entries, children));
+
+        int[] open = IntStream.range(0, Tablebases.ENTRIES)
+                .filter(index -> valid[index] && entries[index] == 0 && children[index].length > 0)
+                .toArray();
+        int deepestExit = 0;
+        for (int index : open) {
+            for (int child : children[index]) {
+                if (child < 0) {
+                    deepestExit = Math.max(deepestExit, -child - 1);
+                }
+            }
+        }
+
+        for (int plies = 1; open.length > 0; plies++) {
+            if (plies >= MAX_ENTRY) {
+                throw new IllegalStateException("Distance to mate does not fit the table format");
+            }
+            int[] decided = new int[open.length];
+            int[] pending = open;
+            int target = plies;
+            parallel(pending.length, i -> decided[i] = decide(children[pending[i]], entries, target));
+
+            int remaining = 0;
+            boolean changed = false;
+            for (int i = 0; i < pending.length; i++) {
+                if (decided[i] != 0) {
+                    entries[pending[i]] = (byte) decided[i];
+                    changed = true;
+                } else {
+                    pending[remaining++] = pending[i];
+                }
+            }
+            open = Arrays.copyOf(pending, remaining);
+            if (!changed && plies > deepestExit) {
+                break;
+            }
+        }
+
+        built.put(type, entries);
+        return write(file, type, entries, valid);
+    }
+
+    /**
+     * @return the entry for a position decided at this many plies, or 0 if it
+     * stays open
+     */
+    private static int decide(int[] children, byte[] entries, int plies) {
+        boolean allWon = true;
+        int longestWin = -1;
+        for (int child : children) {
+            int entry = child >= 0 ? entries[child] & 0xFF : -child - 1;
+            if (entry == 0) {
+                allWon = false;
+                continue;
+            }
+            int childPlies = entry - 1;
+            if ((childPlies & 1) == 0) {
+                allWon = false;
+                if (childPlies == plies - 1) {
+                    return plies + 1;
+                }
+            } else {
+                longestWin = Math.max(longestWin, childPlies);
+            }
+        }
+        return allWon && longestWin == plies - 1 ? plies + 1 : 0;
+    }
+
+    private void parallel(int count, IntConsumer task) {
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
+    }
+
+    private static long write(Path file, ChessPiece.PieceType type, byte[] entries, boolean[] valid)
+            throws IOException {
+        int blocks = Tablebases.ENTRIES / Tablebases.BLOCK_SIZE;
+        int[] offsets = new int[blocks + 1];
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int block = 0; block < blocks; block++) {
+            offsets[block] = data.size();
+            int start = block * Tablebases.BLOCK_SIZE;
+            int value = -1;
+            int run = 0;
+            for (int index = start; index < start + Tablebases.BLOCK_SIZE; index++) {
+                if (!valid[index] && value >= 0) {
+                    run++;
+                    continue;
+                }
+                int entry = valid[index] ? entries[index] & 0xFF : 0;
+                if (entry == value) {
+                    run++;
+                } else {
+                    writeRun(data, value, run);
+                    value = entry;
+                    run = 1;
+                }
+            }
+            writeRun(data, value, run);
+        }
+        offsets[blocks] = data.size();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(Tablebases.MAGIC);
+            out.writeInt(type.ordinal());
+            out.writeInt(Tablebases.ENTRIES);
+            out.writeInt(Tablebases.BLOCK_SIZE);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            data.writeTo(out);
+        }
+        return Files.size(file);
+    }
+
+    private static void writeRun(ByteArrayOutputStream data, int value, int run) {
+        if (run == 0) {
+            return;
+        }
+        data.write(value);
+        for (; run >= 0x80; run >>>= 7) {
+            data.write((run & 0x7F) | 0x80);
+        }
+        data.write(run);
+    }
+
+    /**
+     * Per-thread board for expanding positions
+     */
+    private final class Worker {
+        private final ChessBoard board = new ChessBoard();
+        private final ChessGame game = new ChessGame();
+        private final int[] moves = new int[Move.MAX_MOVES];
+
+        /**
+         * Sets up one position, checks it can occur, marks mates and lists
+         * where each legal move leads: an index in this table, or -(entry + 1)
+         * for a move that leaves it
+         */
+        void expand(ChessPiece.PieceType type, int index, boolean[] valid, byte[] entries, int[][] children) {
+            int piece = index & 63;
+            int weakKing = (index >>> 6) & 63;
+            int strongKing = (index >>> 12) & 63;
+            int sideToMove = index >>> 18;
+            if (piece == weakKing || piece == strongKing || weakKing == strongKing
+                    || Math.max(Math.abs((strongKing & 7) - (weakKing & 7)), Math.abs((strongKing >>> 3) - (weakKing >>> 3))) < 2
+                    || (type == ChessPiece.PieceType.PAWN && (piece < 8 || piece >= 56))) {
+                return;
+            }
+
+            board.clearBoard();
+            board.addPiece(Move.position(strongKing), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+            board.addPiece(Move.position(weakKing), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+            board.addPiece(Move.position(piece), new ChessPiece(ChessGame.TeamColor.WHITE, type));
+            game.setBoard(board);
+            ChessGame.TeamColor toMove = sideToMove == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessGame.TeamColor waiting = sideToMove == 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            game.setTeamTurn(toMove);
+            if (game.isInCheck(waiting)) {
+                return;
+            }
+            valid[index] = true;
+
+            int count = game.generateLegalMoves(moves);
+            if (count == 0) {
+                entries[index] = (byte) (game.isInCheck(toMove) ? 1 : 0);
+                children[index] = new int[0];
+                return;
+            }
+            int[] next = new int[count];
+            for (int i = 0; i < count; i++) {
+                int from = Move.from(moves[i]);
+                int to = Move.to(moves[i]);
+                ChessPiece.PieceType promotion = Move.promotion(moves[i]);
+                if (sideToMove == 1) {
+                    next[i] = to == piece ? -1 : Tablebases.index(0, strongKing, to, piece);
+                } else if (from == strongKing) {
+                    next[i] = Tablebases.index(1, to, weakKing, piece);
+                } else if (promotion != null) {
+                    next[i] = -1 - promoted(promotion, Tablebases.index(1, strongKing, weakKing, to));
+                } else {
+                    next[i] = Tablebases.index(1, strongKing, weakKing, to);
+                }
+            }
+            children[index] = next;
+        }
+
+        private int promoted(ChessPiece.PieceType promotion, int index) {
+            if (promotion == ChessPiece.PieceType.BISHOP || promotion == ChessPiece.PieceType.KNIGHT) {
+                return 0;
+            }
+            byte[] table = built.get(promotion);
+            if (table == null) {
+                throw new IllegalStateException("Generate the " + promotion + " table before the pawn table");
+            }
+            return table[index] & 0xFF;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "tablebases");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(threads);
+        Files.createDirectories(directory);
+        for (ChessPiece.PieceType type : SETS) {
+            long start = System.nanoTime();
+            Path file = directory.resolve(Tablebases.fileName(type));
+            long bytes = generator.generate(type, file);
+            System.out.printf("%s  %,d bytes  %d ms%n", file, bytes, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Perfect-play results for three-piece endgames (two kings and one other
+ * piece), read from files written by {@link TablebaseGenerator} and
+ * memory-mapped for probing by any number of threads.
+ * <p>
+ * Each table covers one extra piece belonging to the "strong" side, indexed
+ * as if that side were white; positions where black holds the piece are
+ * mirrored top to bottom before lookup. An entry is a distance to mate in
+ * plies plus one, 0 for a draw, so even distances are losses for the side to
+ * move and odd ones are wins.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ *   int     magic "CTB1"
+ *   int     piece type ordinal of the extra piece
+ *   int     entry count, 2 * 64^3
+ *   int     block size in entries
+ *   int[]   start of each block's data relative to the data section, plus
+ *           one final offset for the end
+ *   ...     per block, runs of (entry byte, run length as a varint)
+ * </pre>
+ * Positions that cannot occur copy the value of the run before them so the
+ * runs stay long.
+ */
+public final class Tablebases {
+    /**
+     * Returned by {@link #probe} for positions no loaded table covers
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    static final int MAGIC = 0x43544231;
+    static final int ENTRIES = 2 * 64 * 64 * 64;
+    static final int BLOCK_SIZE = 4096;
+    static final int HEADER_BYTES = 16;
+    static final int DATA_START = HEADER_BYTES + (ENTRIES / BLOCK_SIZE + 1) * Integer.BYTES;
+
+    private final Map<ChessPiece.PieceType, MappedByteBuffer> tables = new EnumMap<>(ChessPiece.PieceType.class);
+
+    private Tablebases() {
+    }
+
+    /**
+     * Maps every table file found in the directory; missing sets are left out
+     *
+     * @throws IOException if a table file is present but unreadable or corrupt
+     */
+    public static Tablebases open(Path directory) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            Path file = directory.resolve(fileName(type));
+            if (type != ChessPiece.PieceType.KING && Files.isRegularFile(file)) {
+                tablebases.tables.put(type, map(file, type));
+            }
+        }
+        return tablebases;
+    }
+
+    /**
+     * @return number of tables loaded
+     */
+    public int size() {
+        return tables.size();
+    }
+
+    /**
+     * Looks up the game's position. Bishop and knight endings need no table:
+     * they are always drawn.
+     *
+     * @return {@link #UNKNOWN} if no table covers the position; 0 for a draw;
+     * n &gt; 0 if the side to move mates in n plies; -(n + 1) if the side to
+     * move is mated in n plies
+     */
+    public int probe(ChessGame game) {
+        if (game.pieceCount() != 3) {
+            return UNKNOWN;
+        }
+        int whiteKing = -1;
+        int blackKing = -1;
+        int piece = -1;
+        ChessPiece extra = null;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece at = game.getBoard().getPiece(Move.position(square));
+            if (at == null) {
+                continue;
+            }
+            if (at.getPieceType() != ChessPiece.PieceType.KING) {
+                extra = at;
+                piece = square;
+            } else if (at.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                whiteKing = square;
+            } else {
+                blackKing = square;
+            }
+        }
+        if (extra == null || whiteKing < 0 || blackKing < 0) {
+            return UNKNOWN;
+        }
+        ChessPiece.PieceType type = extra.getPieceType();
+        if (type == ChessPiece.PieceType.BISHOP || type == ChessPiece.PieceType.KNIGHT) {
+            return 0;
+        }
+        MappedByteBuffer table = tables.get(type);
+        if (table == null) {
+            return UNKNOWN;
+        }
+        ChessGame.TeamColor strong = extra.getTeamColor();
+        if (strong == ChessGame.TeamColor.EMPTY) {
+            return UNKNOWN;
+        }
+        int strongKing = whiteKing;
+        int weakKing = blackKing;
+        if (strong == ChessGame.TeamColor.BLACK) {
+            strongKing = blackKing ^ 56;
+            weakKing = whiteKing ^ 56;
+            piece ^= 56;
+        }
+        int sideToMove = game.getTeamTurn() == strong ? 0 : 1;
+        return fromEntry(entry(table, index(sideToMove, strongKing, weakKing, piece)));
+    }
+
+    /**
+     * @return the number of plies to mate for a nonzero {@link #probe} result
+     */
+    public static int pliesToMate(int result) {
+        return result > 0 ? result : -result - 1;
+    }
+
+    static int index(int sideToMove, int strongKing, int weakKing, int piece) {
+        return ((sideToMove * 64 + strongKing) * 64 + weakKing) * 64 + piece;
+    }
+
+    static String fileName(ChessPiece.PieceType type) {
+        char letter = switch (type) {
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+            case KING -> 'k';
+        };
+        return "k" + letter + "k.ctb";
+    }
+
+    /**
+     * @return a table entry as a probe result
+     */
+    static int fromEntry(int entry) {
+        if (entry == 0) {
+            return 0;
+        }
+        int plies = entry - 1;
+        return (plies & 1) == 1 ? plies : -plies - 1;
+    }
+
+    private static int entry(MappedByteBuffer table, int index) {
+        int block = index / BLOCK_SIZE;
+        int position = DATA_START + table.getInt(HEADER_BYTES + block * Integer.BYTES);
+        int remaining = index % BLOCK_SIZE;
+        while (true) {
+            int value = table.get(position++) & 0xFF;
+            int run = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = table.get(position++);
+                run |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            if (remaining < run) {
+                return value;
+            }
+            remaining -= run;
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, ChessPiece.PieceType type) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < DATA_START || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mapped.order(ByteOrder.BIG_ENDIAN);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != type.ordinal()
+                    || mapped.getInt(8) != ENTRIES || mapped.getInt(12) != BLOCK_SIZE
+                    || DATA_START + (long) mapped.getInt(HEADER_BYTES + ENTRIES / BLOCK_SIZE * Integer.BYTES) != length) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            return mapped;
+        }
+    }
+}
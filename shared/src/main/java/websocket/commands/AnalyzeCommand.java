@@ -0,0 +1,10 @@
+package websocket.commands;
+
+/**
+ * Asks the server to analyze the current position of the connected game
+ */
+public class AnalyzeCommand extends UserGameCommand {
+    public AnalyzeCommand(String authToken, Integer gameID) {
+        super(CommandType.ANALYZE, authToken, gameID);
+    }
+}
@@ -1,7 +1,26 @@
 package websocket.commands;
 
 public class ConnectCommand extends UserGameCommand {
+    /**
+     * How the client wants LOAD_GAME messages encoded; null means GAME
+     */
+    private final BoardFormat boardFormat;
+
+    public enum BoardFormat {
+        GAME,
+        FEN
+    }
+
     public ConnectCommand(String authToken, Integer gameID) {
+        this(authToken, gameID, null);
+    }
+
+    public ConnectCommand(String authToken, Integer gameID, BoardFormat boardFormat) {
         super(CommandType.CONNECT, authToken, gameID);
+        this.boardFormat = boardFormat;
+    }
+
+    public BoardFormat getBoardFormat() {
+        return boardFormat == null ? BoardFormat.GAME : boardFormat;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package websocket.messages;
+
+import chess.ChessMove;
+import chess.engine.SearchResult;
+
+import java.util.List;
+
+/**
+ * The server's analysis of a position: the move it recommends and how it
+ * rates the position for the side to move
+ */
+public class AnalysisMessage extends ServerMessage {
+    private final String fen;
+    private final int materialBalance;
+    private final ChessMove bestMove;
+    private final int score;
+    private final boolean mate;
+    private final int depth;
+    private final List<ChessMove> principalVariation;
+
+    /**
+     * @param fen             the position analyzed
+     * @param materialBalance White's material minus Black's, in centipawns
+     */
+    public AnalysisMessage(String fen, int materialBalance, SearchResult result) {
+        super(ServerMessageType.ANALYSIS);
+        this.fen = fen;
+        this.materialBalance = materialBalance;
+        this.bestMove = result.bestMove();
+        this.score = result.score();
+        this.mate = result.isMate();
+        this.depth = result.depth();
+        this.principalVariation = result.principalVariation();
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * @return White's material minus Black's, in centipawns
+     */
+    public int getMaterialBalance() {
+        return materialBalance;
+    }
+
+    /**
+     * @return the recommended move, or null if the side to move has none
+     */
+    public ChessMove getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return centipawns for the side to move; see {@link #isMate()}
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return true if the score is a forced mate rather than a material estimate
+     */
+    public boolean isMate() {
+        return mate;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public List<ChessMove> getPrincipalVariation() {
+        return principalVariation;
+    }
+}
@@ -1,16 +1,89 @@
 package websocket.messages;
 
 import chess.ChessGame;
+import chess.Fen;
+import chess.GameSnapshot;
 
+/**
+ * Carries the game either as the full serialized ChessGame or, for clients
+ * that asked for it on connect, as a FEN string of under 100 bytes. Exactly
+ * one of the two is set.
+ */
 public class LoadGameMessage extends ServerMessage {
     private final ChessGame game;
+    private final String fen;
+    private final ChessGame.GameStatus status;
+    private final boolean gameOver;
 
     public LoadGameMessage(ChessGame game) {
         super(ServerMessageType.LOAD_GAME);
         this.game = game;
+        this.fen = null;
+        this.status = game.getStatus();
+        this.gameOver = game.isGameOver();
     }
 
+    /**
+     * Builds the message from a snapshot, so it never shares state with the
+     * live game
+     */
+    public LoadGameMessage(GameSnapshot snapshot) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = snapshot.toGame();
+        this.fen = null;
+        this.status = snapshot.getStatus();
+        this.gameOver = snapshot.isGameOver();
+    }
+
+    private LoadGameMessage(String fen, ChessGame.GameStatus status, boolean gameOver) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = null;
+        this.fen = fen;
+        this.status = status;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * @return a message carrying the position as FEN instead of the game object
+     */
+    public static LoadGameMessage fen(GameSnapshot snapshot) {
+        return new LoadGameMessage(Fen.write(snapshot), snapshot.getStatus(), snapshot.isGameOver());
+    }
+
+    /**
+     * @return the game, rebuilt from the FEN if that is what was sent. FEN
+     * has no room for how the game ended, so the carried status and game-over
+     * flag are applied to the rebuilt game; its draw history is not known.
+     */
     public ChessGame getGame() {
-        return game;
+        if (game != null || fen == null) {
+            return game;
+        }
+        ChessGame rebuilt = Fen.parse(fen);
+        if (status != null && status.endsGame()) {
+            rebuilt.adjudicate(status);
+        } else if (gameOver) {
+            rebuilt.setGameOver(true);
+        }
+        return rebuilt;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * @return the status as the server computed it, including results the
+     * position alone cannot show such as repetition or adjudication
+     */
+    public ChessGame.GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if no more moves may be made, including after a resignation
+     */
+    public boolean isGameOver() {
+        return gameOver;
     }
 }
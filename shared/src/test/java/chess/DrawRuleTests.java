@@ -0,0 +1,114 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DrawRuleTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+    }
+
+    private static ChessGame kingsAnd(ChessPiece.PieceType whiteExtra, int whiteRow, int whiteCol,
+                                      ChessPiece.PieceType blackExtra, int blackRow, int blackCol) {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        if (whiteExtra != null) {
+            board.addPiece(new ChessPosition(whiteRow, whiteCol), new ChessPiece(ChessGame.TeamColor.WHITE, whiteExtra));
+        }
+        if (blackExtra != null) {
+            board.addPiece(new ChessPosition(blackRow, blackCol), new ChessPiece(ChessGame.TeamColor.BLACK, blackExtra));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    @Test
+    void threefoldRepetitionEndsGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(), "Start position has only occurred twice");
+        shuffleKnights(game);
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    void loadingBoardForgetsEarlierPositions() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        game.setBoard(board);
+        // Fen.parse sets the clock after the board
+        game.setHalfmoveClock(4);
+        shuffleKnights(game);
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(), "Start position has only occurred twice on this board");
+        shuffleKnights(game);
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+    }
+
+    @Test
+    void pawnMoveResetsRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(move(2, 1, 3, 1));
+        game.makeMove(move(7, 1, 6, 1));
+        assertEquals(0, game.getHalfmoveClock());
+        shuffleKnights(game);
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    void fiftyMoveRuleSurvivesStorage() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.setHalfmoveClock(99);
+
+        ChessGame stored = GameCodec.decode(GameCodec.encode(game)).toGame();
+        stored.makeMove(move(8, 7, 6, 6));
+        assertEquals(100, stored.getHalfmoveClock());
+        assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, stored.getStatus());
+
+        ChessGame reloaded = GameCodec.decode(GameCodec.encode(stored)).toGame();
+        assertTrue(reloaded.isGameOver());
+    }
+
+    @Test
+    void drawStateIsLeftOutOfJson() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        JsonObject json = new Gson().toJsonTree(game).getAsJsonObject();
+        assertFalse(json.has("positionHistory"));
+        assertFalse(json.has("halfmoveClock"));
+    }
+
+    @Test
+    void insufficientMaterial() throws InvalidMoveException {
+        ChessGame lone = kingsAnd(ChessPiece.PieceType.BISHOP, 4, 4, null, 0, 0);
+        lone.makeMove(move(1, 1, 1, 2));
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, lone.getStatus());
+
+        ChessGame sameColour = kingsAnd(ChessPiece.PieceType.BISHOP, 4, 4, ChessPiece.PieceType.BISHOP, 6, 6);
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, sameColour.getStatus());
+
+        ChessGame oppositeColour = kingsAnd(ChessPiece.PieceType.BISHOP, 4, 4, ChessPiece.PieceType.BISHOP, 6, 5);
+        assertEquals(ChessGame.GameStatus.NORMAL, oppositeColour.getStatus());
+
+        ChessGame rook = kingsAnd(ChessPiece.PieceType.ROOK, 4, 4, null, 0, 0);
+        assertEquals(ChessGame.GameStatus.NORMAL, rook.getStatus());
+    }
+}
@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void startPositionRoundTrip() {
+        ChessGame game = new ChessGame();
+        assertEquals(Fen.START, Fen.write(game));
+
+        ChessGame parsed = Fen.parse(Fen.START);
+        ChessBoard reset = new ChessBoard();
+        reset.resetBoard();
+        assertEquals(reset, parsed.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, parsed.getTeamTurn());
+        assertEquals(game.positionKey(), parsed.positionKey());
+    }
+
+    @Test
+    void writesTurnAndHalfmoveClock() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(8, 7, 6, 6));
+        String fen = Fen.write(game);
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w - - 1 1", fen);
+        assertEquals(fen, Fen.write(game.snapshot()));
+
+        ChessGame parsed = Fen.parse(fen);
+        assertEquals(game, parsed);
+        assertEquals(1, parsed.getHalfmoveClock());
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w - -", Fen.writeEpd(game));
+    }
+
+    @Test
+    void parsesEpdAndIgnoresCastlingAndEnPassant() {
+        ChessGame epd = Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b KQkq e3 bm Rh8;");
+        assertEquals(ChessGame.TeamColor.BLACK, epd.getTeamTurn());
+        assertEquals(0, epd.getHalfmoveClock());
+        assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                epd.getBoard().getPiece(new ChessPosition(5, 8)));
+    }
+
+    @Test
+    void perftFromFen() {
+        ChessGame game = Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        assertEquals(14, new Perft().perft(game, 1));
+        assertEquals(191, new Perft().perft(game, 2));
+    }
+
+    @Test
+    void rejectsMalformedPlacement() {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse(Fen.START.replace(" w ", " x ")));
+    }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void startPositionIsSmall() {
+        ChessGame game = new ChessGame();
+        byte[] data = GameCodec.encode(game);
+        assertTrue(data.length <= 30, "Encoded start position took " + data.length + " bytes");
+        assertTrue(data.length * 20 < new Gson().toJson(game).length());
+
+        ChessGame decoded = GameCodec.decode(data).toGame();
+        assertEquals(game, decoded);
+        assertEquals(game.positionKey(), decoded.positionKey());
+    }
+
+    @Test
+    void roundTripKeepsTurnStatusAndHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game)).toGame();
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn());
+        assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+        decoded.makeMove(move(6, 6, 8, 7));
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, decoded.getStatus());
+        assertTrue(GameCodec.decode(GameCodec.encode(decoded)).isGameOver());
+    }
+
+    @Test
+    void emptyTeamPiecesAreWrittenWide() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(4, 4), new ChessPiece(ChessGame.TeamColor.EMPTY, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        assertEquals(board, GameCodec.decode(GameCodec.encode(game)).toGame().getBoard());
+    }
+
+    @Test
+    void jsonIsNotMistakenForBinary() {
+        byte[] json = new Gson().toJson(new ChessGame()).getBytes(StandardCharsets.UTF_8);
+        assertFalse(GameCodec.isEncoded(json));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(json));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{GameCodec.VERSION, 0}));
+    }
+}
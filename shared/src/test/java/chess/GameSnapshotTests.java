@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSnapshotTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void snapshotIgnoresLaterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        GameSnapshot snapshot = game.snapshot();
+
+        game.makeMove(move(7, 5, 5, 5));
+        assertEquals(ChessGame.TeamColor.BLACK, snapshot.getTeamTurn());
+        assertNull(snapshot.getPiece(new ChessPosition(5, 5)));
+        assertNotNull(snapshot.getPiece(new ChessPosition(7, 5)));
+        assertNotEquals(game.positionKey(), snapshot.positionKey());
+    }
+
+    @Test
+    void toGameRestoresPositionAndStatus() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(8, 4, 4, 8));
+
+        ChessGame restored = game.snapshot().toGame();
+        assertEquals(game, restored);
+        assertEquals(game.positionKey(), restored.positionKey());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, restored.getStatus());
+        assertTrue(restored.isGameOver());
+    }
+
+    @Test
+    void toGameKeepsRepetitionHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(move(1, 7, 3, 6));
+            game.makeMove(move(8, 7, 6, 6));
+            game.makeMove(move(3, 6, 1, 7));
+            if (i == 0) {
+                game.makeMove(move(6, 6, 8, 7));
+            }
+        }
+
+        ChessGame restored = game.snapshot().toGame();
+        restored.makeMove(move(6, 6, 8, 7));
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, restored.getStatus());
+    }
+}
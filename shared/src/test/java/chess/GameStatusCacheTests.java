@@ -0,0 +1,50 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusCacheTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    private static ChessGame foolsMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(8, 4, 4, 8));
+        return game;
+    }
+
+    @Test
+    void statusComputedAfterMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+
+        game = foolsMate();
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    void statusFollowsDirectBoardEdits() throws InvalidMoveException {
+        ChessGame game = foolsMate();
+        game.getBoard().addPiece(new ChessPosition(4, 8), null);
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(), "Removing the queen should lift the mate");
+    }
+
+    @Test
+    void statusSurvivesSerialization() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = foolsMate();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(ChessGame.GameStatus.CHECKMATE, copy.getStatus());
+        assertTrue(copy.isGameOver());
+    }
+}
@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMovesTests {
+
+    private static ChessGame emptyGame(ChessGame.TeamColor toMove) {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        game.setBoard(board);
+        game.setTeamTurn(toMove);
+        return game;
+    }
+
+    private static void put(ChessGame game, int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        game.getBoard().addPiece(new ChessPosition(row, col), new ChessPiece(color, type));
+    }
+
+    @Test
+    void pinnedPieceStaysOnPinLine() {
+        ChessGame game = emptyGame(ChessGame.TeamColor.WHITE);
+        put(game, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        put(game, 3, 3, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        put(game, 6, 6, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        put(game, 8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        Collection<ChessMove> moves = game.validMoves(new ChessPosition(3, 3));
+        assertEquals(4, moves.size(), "Pinned bishop may only slide along the pin or capture the queen");
+        for (ChessMove move : moves) {
+            assertEquals(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        }
+    }
+
+    @Test
+    void doubleCheckAllowsOnlyKingMoves() {
+        ChessGame game = emptyGame(ChessGame.TeamColor.WHITE);
+        put(game, 1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        put(game, 4, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        put(game, 8, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        put(game, 3, 4, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        put(game, 8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        assertTrue(game.validMoves(new ChessPosition(4, 1)).isEmpty());
+        assertFalse(game.validMoves(new ChessPosition(1, 5)).isEmpty());
+    }
+
+    @Test
+    void kingCannotRetreatAlongCheckingLine() {
+        ChessGame game = emptyGame(ChessGame.TeamColor.WHITE);
+        put(game, 4, 4, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        put(game, 4, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        put(game, 8, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        for (ChessMove move : game.validMoves(new ChessPosition(4, 4))) {
+            assertNotEquals(4, move.getEndPosition().getRow(), "King stayed on the rook's rank: " + move);
+        }
+        assertEquals(ChessGame.GameStatus.CHECK, game.getStatus());
+    }
+
+    @Test
+    void generatedMovesMatchValidMoves() {
+        ChessGame game = new ChessGame();
+        int[] buffer = new int[Move.MAX_MOVES];
+        int total = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    total += game.validMoves(new ChessPosition(row, col)).size();
+                }
+            }
+        }
+        assertEquals(total, game.generateLegalMoves(buffer));
+    }
+
+    @Test
+    void isLegalTestsOnlyTheGivenMove() {
+        ChessGame game = emptyGame(ChessGame.TeamColor.WHITE);
+        put(game, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        put(game, 3, 3, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        put(game, 7, 8, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        put(game, 6, 6, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        put(game, 8, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        assertTrue(game.isLegal(new ChessMove(new ChessPosition(3, 3), new ChessPosition(6, 6), null)));
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(3, 3), new ChessPosition(2, 4), null)),
+                "Pinned bishop left the pin line");
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(7, 8), new ChessPosition(8, 8), null)),
+                "Pawn reached the last rank without promoting");
+        assertTrue(game.isLegal(new ChessMove(new ChessPosition(7, 8), new ChessPosition(8, 8),
+                ChessPiece.PieceType.KNIGHT)));
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(6, 6), new ChessPosition(3, 3), null)),
+                "Not black's turn");
+        assertFalse(game.isLegal(new ChessMove(new ChessPosition(3, 3), new ChessPosition(9, 9), null)));
+    }
+}
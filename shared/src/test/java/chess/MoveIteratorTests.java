@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveIteratorTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void iteratorReturnsEveryLegalMoveOnce() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+
+        int[] buffer = new int[Move.MAX_MOVES];
+        int count = game.generateLegalMoves(buffer);
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            expected.add(buffer[i]);
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        MoveIterator moves = game.moveIterator();
+        for (int move = moves.next(); move != Move.NONE; move = moves.next()) {
+            assertTrue(seen.add(move), "Returned twice: " + Move.toChessMove(move));
+        }
+        assertEquals(expected, seen);
+        assertEquals(Move.NONE, moves.next());
+    }
+
+    @Test
+    void capturesFollowKingMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+
+        MoveIterator moves = game.moveIterator();
+        int king = Move.square(new ChessPosition(1, 5));
+        int first = moves.next();
+        while (Move.from(first) == king) {
+            first = moves.next();
+        }
+        assertEquals(move(4, 5, 5, 4), Move.toChessMove(first), "The only capture should follow the king moves");
+    }
+
+    @Test
+    void hasAnyLegalMoveMatchesStatus() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertTrue(game.hasAnyLegalMove(ChessGame.TeamColor.WHITE));
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(8, 4, 4, 8));
+        assertFalse(game.hasAnyLegalMove(ChessGame.TeamColor.WHITE));
+        assertTrue(game.hasAnyLegalMove(ChessGame.TeamColor.BLACK));
+    }
+}
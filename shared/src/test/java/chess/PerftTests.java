@@ -0,0 +1,41 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTests {
+    private static final long[] START_POSITION_NODES = {1, 20, 400, 8902, 197281};
+
+    @Test
+    void startPositionNodeCounts() {
+        Perft perft = new Perft();
+        for (int depth = 0; depth < START_POSITION_NODES.length; depth++) {
+            assertEquals(START_POSITION_NODES[depth], perft.perft(new ChessGame(), depth),
+                    "Wrong node count at depth " + depth);
+        }
+    }
+
+    @Test
+    void perftRestoresGame() {
+        ChessGame game = new ChessGame();
+        long key = game.positionKey();
+        new Perft().perft(game, 3);
+        assertEquals(new ChessGame(), game, "Perft should leave the game where it started");
+        assertEquals(key, game.positionKey());
+    }
+
+    @Test
+    void parallelAndCachedMatchSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(197281, new Perft().perft(new ChessGame(), 4, pool));
+            assertEquals(197281, new Perft(1 << 16).perft(new ChessGame(), 4, pool));
+            assertEquals(197281, new Perft(1 << 16).perft(new ChessGame(), 4));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionKeyTests {
+
+    @Test
+    void samePositionSameKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+        first.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        first.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        second.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        second.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+
+        assertEquals(first, second, "Transposed move orders should reach the same game");
+        assertEquals(first.positionKey(), second.positionKey(), "Transposed positions should share a key");
+    }
+
+    @Test
+    void sideToMoveChangesKey() {
+        ChessGame game = new ChessGame();
+        long whiteToMove = game.positionKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(whiteToMove, game.positionKey(), "Side to move should be part of the key");
+    }
+
+    @Test
+    void incrementalKeyMatchesRebuiltBoard() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        board.addPiece(new ChessPosition(2, 5), null);
+        board.addPiece(new ChessPosition(4, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(7, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        ChessBoard copy = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                copy.addPiece(position, board.getPiece(position));
+            }
+        }
+        assertEquals(board.zobristKey(), copy.zobristKey(), "Incremental key should match a fresh build");
+        assertEquals(board.hashCode(), copy.hashCode());
+    }
+}
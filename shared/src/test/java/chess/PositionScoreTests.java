@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionScoreTests {
+
+    @Test
+    @DisplayName("Incremental score matches a rebuilt board through moves and undos")
+    public void incrementalMatchesRebuild() {
+        ChessGame game = new ChessGame();
+        assertEquals(0, game.positionScore(), "Start position is symmetric");
+        assertEquals(0, game.materialBalance());
+
+        Random random = new Random(7);
+        int[] moves = new int[Move.MAX_MOVES];
+        int played = 0;
+        for (; played < 80; played++) {
+            int count = game.generateLegalMoves(moves);
+            if (count == 0) {
+                break;
+            }
+            game.doMove(moves[random.nextInt(count)]);
+            ChessGame rebuilt = Fen.parse(Fen.write(game));
+            assertEquals(rebuilt.positionScore(), game.positionScore(), "After ply " + (played + 1));
+            assertEquals(rebuilt.materialBalance(), game.materialBalance(), "After ply " + (played + 1));
+        }
+        for (int i = 0; i < played; i++) {
+            game.undoMove();
+        }
+        assertEquals(0, game.positionScore());
+        assertEquals(0, game.materialBalance());
+    }
+
+    @Test
+    @DisplayName("Material balance counts captures")
+    public void materialBalance() {
+        assertEquals(500, Fen.parse("4k3/8/8/8/8/8/8/R3K3 w - - 0 1").materialBalance());
+        assertEquals(-1900, Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/1NB1KBN1 w - - 0 1").materialBalance(),
+                "Queen and both rooks down");
+    }
+
+    @Test
+    @DisplayName("Kings shelter in the middlegame and centralize in the endgame")
+    public void tapered() {
+        ChessGame endgameCentre = Fen.parse("4k3/8/8/8/3K4/8/8/8 w - - 0 1");
+        ChessGame endgameCorner = Fen.parse("4k3/8/8/8/8/8/8/K7 w - - 0 1");
+        assertTrue(endgameCentre.positionScore() > endgameCorner.positionScore());
+
+        ChessGame middlegameCentre = Fen.parse("rnbqkbnr/pppppppp/8/8/3K4/8/PPPPPPPP/RNBQ1BNR w - - 0 1");
+        ChessGame middlegameHome = Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1");
+        assertTrue(middlegameHome.positionScore() > middlegameCentre.positionScore());
+    }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SanTests {
+
+    private static int move(String from, String to, ChessPiece.PieceType promotion) {
+        return Move.encode((from.charAt(1) - '1') * 8 + from.charAt(0) - 'a',
+                (to.charAt(1) - '1') * 8 + to.charAt(0) - 'a', promotion);
+    }
+
+    @Test
+    @DisplayName("Pawn, piece and capture moves")
+    public void basicMoves() {
+        ChessGame game = Fen.parse("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2");
+
+        assertEquals(move("e4", "e5", null), San.parse(game, "e5"));
+        assertEquals(move("e4", "d5", null), San.parse(game, "exd5"));
+        assertEquals(move("g1", "f3", null), San.parse(game, "Nf3"));
+        assertEquals(move("f1", "b5", null), San.parse(game, "Bb5+"));
+    }
+
+    @Test
+    @DisplayName("Disambiguation and promotion")
+    public void disambiguation() {
+        ChessGame game = Fen.parse("4k3/1P6/8/8/8/8/4K3/R6R w - - 0 1");
+
+        assertEquals(move("a1", "d1", null), San.parse(game, "Rad1"));
+        assertEquals(move("h1", "f1", null), San.parse(game, "Rhf1"));
+        assertEquals(move("b7", "b8", ChessPiece.PieceType.KNIGHT), San.parse(game, "b8=N"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Rd1"));
+    }
+
+    @Test
+    @DisplayName("Illegal and unsupported moves are rejected")
+    public void rejected() {
+        ChessGame game = new ChessGame();
+
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "e5"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "O-O"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Zz9"));
+    }
+}
@@ -0,0 +1,101 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTests {
+    private static final String PGN = """
+            [Event "One"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 {main line} Nc6 (2... d6 3. d4) 3. Bb5 a6 1-0
+
+            [Event "Two"]
+            [Result "0-1"]
+
+            1.e4 c5 2.Nf3 $1 d6 0-1
+
+            [Event "Three"]
+            [Result "1/2-1/2"]
+
+            1. d4 d5 2. c4 1/2-1/2
+            """;
+
+    @TempDir
+    Path dir;
+
+    private OpeningBook build(int plies) throws IOException {
+        BookBuilder builder = new BookBuilder(plies);
+        builder.addPgn(PGN);
+        assertEquals(3, builder.games());
+        Path file = dir.resolve("book.bin");
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    @DisplayName("Start position weights follow the results")
+    public void startPosition() throws IOException {
+        OpeningBook book = build(20);
+        List<BookMove> moves = book.moves(new ChessGame());
+
+        // e4 won once (2) and lost once (0); d4 drew (1)
+        assertEquals(List.of(new BookMove(move(2, 5, 4, 5), 2), new BookMove(move(2, 4, 4, 4), 1)), moves);
+    }
+
+    @Test
+    @DisplayName("Probes follow the game and stop past the book")
+    public void followsGame() throws IOException, InvalidMoveException {
+        OpeningBook book = build(2);
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+
+        // Black's e5 won nothing, c5 won once; losses are left out
+        assertEquals(List.of(new BookMove(move(7, 3, 5, 3), 2)), book.moves(game));
+        assertEquals(move(7, 3, 5, 3), book.pick(game, new Random(1)));
+
+        game.makeMove(move(7, 3, 5, 3));
+        assertTrue(book.moves(game).isEmpty(), "Only two plies were taken into the book");
+        assertNull(book.pick(game, new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Entries with a bad promotion code are skipped")
+    public void skipsCorruptEntries() throws IOException {
+        build(20);
+        Path file = dir.resolve("book.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        for (int entry = OpeningBook.HEADER_BYTES; entry < bytes.length; entry += OpeningBook.ENTRY_BYTES) {
+            bytes[entry + 8] |= 0x70;
+        }
+        Files.write(file, bytes);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertTrue(book.moves(new ChessGame()).isEmpty());
+        assertNull(book.pick(new ChessGame(), new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Other files are rejected")
+    public void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.writeString(file, "not a book at all");
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
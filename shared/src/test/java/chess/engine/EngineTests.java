@@ -0,0 +1,77 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineTests {
+
+    @Test
+    @DisplayName("Finds mate in one")
+    public void findsMateInOne() {
+        // Back-rank mate: Ra1-a8
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4));
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertTrue(result.isMate());
+        assertEquals(Engine.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Takes a hanging queen")
+    public void takesHangingQueen() {
+        ChessGame game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+
+        assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.bestMove());
+    }
+
+    @Test
+    @DisplayName("A search stopped mid-iteration keeps its best move's score")
+    public void stoppedSearchKeepsScore() {
+        // White is a queen up and changes its mind about the best move between
+        // iterations, so many budgets stop just after a new best move is found
+        ChessGame game = Fen.parse("r5k1/5ppp/8/8/8/8/5PPP/3QR1K1 w - - 0 1");
+        for (long nodes = 200; nodes <= 20_000; nodes += 97) {
+            SearchResult result = new Engine().search(game, SearchLimits.nodes(nodes));
+            assertTrue(result.score() > 300, "Stopped after " + nodes + " nodes: " + result);
+        }
+    }
+
+    @Test
+    @DisplayName("Best move is legal and the game is untouched")
+    public void bestMoveIsLegal() {
+        ChessGame game = new ChessGame();
+        String before = Fen.write(game);
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4));
+
+        assertEquals(before, Fen.write(game));
+        assertEquals(4, result.depth());
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        assertFalse(result.principalVariation().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Stops near the node budget")
+    public void respectsNodeLimit() {
+        SearchResult result = new Engine().search(new ChessGame(), SearchLimits.nodes(20_000));
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.nodes() <= 20_000 + 1024, "searched " + result.nodes() + " nodes");
+    }
+
+    @Test
+    @DisplayName("No move when the side to move is mated")
+    public void noMoveWhenMated() {
+        ChessGame game = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+
+        assertNull(result.bestMove());
+        assertEquals(-Engine.MATE, result.score());
+    }
+}
@@ -0,0 +1,58 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.Move;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearchTests {
+
+    @Test
+    @DisplayName("Table entries round-trip and miss on other keys")
+    public void tableRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(12, 28, ChessPiece.PieceType.QUEEN);
+        long key = 0x9E3779B97F4A7C15L;
+        table.store(key, move, -1234, 7, TranspositionTable.LOWER);
+
+        long entry = table.probe(key);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-1234, TranspositionTable.score(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(0L, table.probe(key + table.capacity()), "same bucket, different key");
+    }
+
+    @Test
+    @DisplayName("Helpers share the search and report their own counts")
+    public void helpersReport() {
+        try (ParallelSearch search = new ParallelSearch(3, 4)) {
+            ParallelSearchResult result = search.search(new ChessGame(), SearchLimits.depth(5));
+
+            assertEquals(3, result.threads().size());
+            assertEquals(5, result.best().depth());
+            for (SearchResult thread : result.threads()) {
+                assertTrue(thread.nodes() > 0);
+                assertTrue(thread.tableProbes() > 0);
+            }
+            assertTrue(result.totalNodes() >= result.best().nodes());
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel search finds mate in one")
+    public void findsMate() {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        try (ParallelSearch search = new ParallelSearch(2, 1)) {
+            ParallelSearchResult result = search.search(game, SearchLimits.depth(4));
+
+            assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.best().bestMove());
+            assertEquals(Engine.MATE - 1, result.best().score());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebasesTests {
+    @TempDir
+    static Path dir;
+
+    private static Tablebases tablebases;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        new TablebaseGenerator(2).generateAll(dir);
+        tablebases = Tablebases.open(dir);
+        assertEquals(3, tablebases.size());
+    }
+
+    private static int probe(String fen) {
+        return tablebases.probe(Fen.parse(fen));
+    }
+
+    @Test
+    @DisplayName("Mates in one for either color")
+    public void mateInOne() {
+        assertEquals(1, probe("7k/8/6K1/8/8/8/8/Q7 w - - 0 1"));
+        assertEquals(1, probe("6k1/8/6K1/8/8/8/8/R7 w - - 0 1"));
+        assertEquals(-1, probe("R5k1/8/6K1/8/8/8/8/8 b - - 0 1"), "Mated now");
+        assertEquals(1, probe("r7/8/8/8/8/6k1/8/6K1 b - - 0 1"), "Black's rook is mirrored onto white's table");
+    }
+
+    @Test
+    @DisplayName("King and pawn depends on the opposition")
+    public void opposition() {
+        assertEquals(0, probe("8/3k4/8/3K4/3P4/8/8/8 w - - 0 1"));
+        assertTrue(probe("8/3k4/8/3K4/3P4/8/8/8 b - - 0 1") < 0);
+        assertEquals(0, probe("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1"), "Stalemate");
+        assertTrue(probe("k7/4P3/8/8/8/8/8/K7 w - - 0 1") > 0, "Promotes into the queen table");
+    }
+
+    @Test
+    @DisplayName("Other material is not covered")
+    public void notCovered() {
+        assertEquals(0, probe("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1"));
+        assertEquals(Tablebases.UNKNOWN, probe("4k3/8/8/8/8/8/8/R3K2R w - - 0 1"));
+        assertEquals(Tablebases.UNKNOWN, probe(Fen.START));
+    }
+
+    @Test
+    @DisplayName("Engine scores covered positions exactly")
+    public void engineUsesTables() {
+        ChessGame game = Fen.parse("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        int plies = probe("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        assertTrue(plies > 10);
+
+        Engine engine = new Engine();
+        engine.setTablebases(tablebases);
+        SearchResult result = engine.search(game, SearchLimits.depth(2));
+        assertEquals(Engine.MATE - plies, result.score());
+        assertTrue(result.isMate());
+    }
+
+    @Test
+    @DisplayName("Other files are rejected")
+    public void rejectsOtherFiles(@TempDir Path other) throws IOException {
+        Files.writeString(other.resolve("krk.ctb"), "not a tablebase");
+        assertThrows(IOException.class, () -> Tablebases.open(other));
+    }
+}
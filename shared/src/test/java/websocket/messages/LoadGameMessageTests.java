@@ -0,0 +1,40 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGameMessageTests {
+    private final Gson gson = new Gson();
+
+    private LoadGameMessage viaFen(ChessGame game) {
+        return gson.fromJson(gson.toJson(LoadGameMessage.fen(game.snapshot())), LoadGameMessage.class);
+    }
+
+    @Test
+    @DisplayName("FEN messages keep a result the position cannot show")
+    public void fenKeepsResult() {
+        ChessGame game = new ChessGame();
+        game.adjudicate(ChessGame.GameStatus.THREEFOLD_REPETITION);
+
+        LoadGameMessage message = viaFen(game);
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, message.getStatus());
+        assertTrue(message.isGameOver());
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, message.getGame().getStatus());
+        assertTrue(message.getGame().isGameOver());
+    }
+
+    @Test
+    @DisplayName("FEN messages keep a resignation")
+    public void fenKeepsResignation() {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+
+        LoadGameMessage message = viaFen(game);
+        assertEquals(ChessGame.GameStatus.NORMAL, message.getStatus());
+        assertTrue(message.isGameOver());
+        assertTrue(message.getGame().isGameOver());
+    }
+}